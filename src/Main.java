@@ -6,6 +6,7 @@ import controller.LoginController;
 import model.dao.DataManager;
 import model.dao.NotificationManager;
 import model.dao.CacheManager;
+import model.report.ReportScheduler;
 import model.validation.ValidationManager;
 import view.components.ModernUIComponents;
 
@@ -17,6 +18,7 @@ public class Main {
     // Configuration de l'application
     private static final String APP_NAME = "Système de Gestion USTHB";
     private static final String APP_VERSION = "2.0.0";
+    private static final int WARM_UP_CHUNK = 100; // codes préchargés par passage sur l'EDT
     
     public static void main(String[] args) {
         // Configuration du Look and Feel
@@ -25,6 +27,9 @@ public class Main {
         // Initialisation des managers
         initializeManagers();
         
+        // Préchargement du cache en arrière-plan (pendant le splash screen)
+        startCacheWarmUp();
+        
         // Affichage du splash screen
         showSplashScreen();
         
@@ -108,6 +113,11 @@ public class Main {
             System.out.print("Initialisation du NotificationManager... ");
             NotificationManager notificationManager = NotificationManager.getInstance();
             System.out.println("✓");
+
+            // Rapports planifiés (génération nocturne en arrière-plan)
+            System.out.print("Planification des rapports... ");
+            ReportScheduler.getInstance().start();
+            System.out.println("✓");
             
             // Affichage des statistiques
             printStartupStats(dataManager);
@@ -119,6 +129,42 @@ public class Main {
         }
     }
     
+    /**
+     * Précharge le cache à partir du profil d'accès de la session précédente.
+     * Le profil est lu (E/S) sur un thread dédié ; les HashMap de DataManager ne sont lues
+     * que sur l'EDT, où ont lieu les modifications, par lots de WARM_UP_CHUNK codes.
+     */
+    private static void startCacheWarmUp() {
+        Thread warmUp = new Thread(() -> {
+            try {
+                CacheManager.AccessProfile profile = CacheManager.getInstance().loadAccessProfile();
+                SwingUtilities.invokeLater(() -> warmUpChunk(profile, 0, 0));
+            } catch (Exception e) {
+                System.err.println("✗ Erreur préchargement du cache: " + e.getMessage());
+            }
+        }, "cache-warmup");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    private static void warmUpChunk(CacheManager.AccessProfile profile, int from, int loaded) {
+        int total = profile.getUserCodes().size() + profile.getModuleCodes().size();
+        int done;
+        try {
+            done = loaded + DataManager.getInstance().warmUpCache(profile, from, WARM_UP_CHUNK);
+        } catch (Exception e) {
+            System.err.println("✗ Erreur préchargement du cache: " + e.getMessage());
+            return;
+        }
+
+        int next = from + WARM_UP_CHUNK;
+        if (next < total) {
+            SwingUtilities.invokeLater(() -> warmUpChunk(profile, next, done));
+        } else {
+            System.out.println("✓ Cache préchargé (" + done + " entrées)");
+        }
+    }
+    
     /**
      * Affiche les statistiques au démarrage
      */
@@ -237,6 +283,7 @@ public class Main {
             
             // Nettoyer
             System.out.print("  Nettoyage... ");
+            ReportScheduler.getInstance().shutdown();
             DataManager.getInstance().cleanup();
             System.out.println("✓");
             
@@ -484,16 +531,17 @@ class AppUtils {
     }
     
     /**
-     * Export vers CSV
+     * Export vers CSV (écriture en flux, champs échappés selon RFC 4180)
      */
     public static void exportToCSV(String[][] data, String[] headers, String filename) {
-        try (java.io.PrintWriter writer = new java.io.PrintWriter(filename)) {
+        try (model.export.CsvWriter writer = new model.export.CsvWriter(
+                java.nio.file.Paths.get(filename), model.export.CsvWriter.COMMA)) {
             // Headers
-            writer.println(String.join(",", headers));
+            writer.row(headers);
             
             // Data
             for (String[] row : data) {
-                writer.println(String.join(",", row));
+                writer.row(row);
             }
             
             System.out.println("✓ Export CSV réussi: " + filename);
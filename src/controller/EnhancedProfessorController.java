@@ -1,9 +1,16 @@
 package controller;
 
+import model.dao.CacheManager;
 import model.dao.DataManager;
 import model.dao.NotificationManager;
+import model.dao.ReportCache;
 import model.entities.*;
 import model.entities.Module;
+import model.report.ProfessorAnalytics;
+import model.report.ReportRenderer;
+import model.export.CsvWriter;
+import model.report.ReportScheduler;
+import model.stats.AveragingEngine;
 import view.EnhancedProfessorView;
 import view.LoginView;
 import view.components.ModernUIComponents.ModernTable;
@@ -14,8 +21,10 @@ import java.awt.*;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -36,18 +45,23 @@ public class EnhancedProfessorController {
     private final Professor professor;
     private final DataManager dataManager;
     private final NotificationManager notificationManager;
+    private final AveragingEngine averaging;
 
     private List<Module>  cachedModules   = new ArrayList<>();
     private List<Student> cachedStudents  = new ArrayList<>();
     private List<Grade>   cachedGrades    = new ArrayList<>();
     private List<Absence> cachedAbsences  = new ArrayList<>();
+    private long          loadedVersion   = -1; // version des données des caches ci-dessus
 
-    // Statistiques calculées pour rapports & cartes
-    private static class ProfStats {
-        double globalAverage;
-        double successRate;
-        double presenceRate;
-        long   studentsInDifficulty;
+    // Rapport calculé (stats + texte), partagé par le dialogue et l'export
+    private static class ProfessorReport {
+        final ProfessorAnalytics stats;
+        final String    text;
+
+        ProfessorReport(ProfessorAnalytics stats, String text) {
+            this.stats = stats;
+            this.text  = text;
+        }
     }
 
     public EnhancedProfessorController(EnhancedProfessorView view, User user) {
@@ -55,6 +69,7 @@ public class EnhancedProfessorController {
         this.professor = (Professor) Objects.requireNonNull(user, "user ne doit pas être null");
         this.dataManager = DataManager.getInstance();
         this.notificationManager = dataManager.getNotificationManager();
+        this.averaging = AveragingEngine.getInstance();
 
         initController();
         loadAllData();
@@ -79,6 +94,9 @@ public class EnhancedProfessorController {
      */
     private void loadAllData() {
         try {
+            // Version capturée avant lecture : le rapport en cache correspond à ces données
+            loadedVersion = dataManager.getDataVersion();
+
             // 1) Données brutes
             cachedModules = Optional.ofNullable(
                     dataManager.getProfessorModules(professor.getCode())
@@ -116,12 +134,12 @@ public class EnhancedProfessorController {
             view.updateProfileStats(cachedModules.size(), cachedStudents.size());
 
 
-            ProfStats stats = computeStats();
+            ProfessorAnalytics stats = getReport().stats;
             view.updateReportStats(
-                    stats.successRate,
-                    stats.globalAverage,
-                    stats.presenceRate,
-                    stats.studentsInDifficulty
+                    stats.getSuccessRate(),
+                    stats.getGlobalAverage(),
+                    stats.getPresenceRate(),
+                    stats.getStudentsInDifficulty()
             );
 
         } catch (Exception e) {
@@ -999,10 +1017,16 @@ public class EnhancedProfessorController {
                     dataManager.addAbsence(newAbs); // notification déjà gérée
 
                 } else {
-                    existingAbsence.setSessionType(sessionType);
-                    existingAbsence.setJustified(justified);
-                    existingAbsence.setReason(reason.isEmpty() ? null : reason);
-                    dataManager.updateAbsence(existingAbsence);
+                    // Nouvelle instance : l'absence remplacée reste intacte pour les abonnés
+                    Absence updated = new Absence(
+                            existingAbsence.getStudentCode(), existingAbsence.getModuleCode(),
+                            existingAbsence.getDate(), justified,
+                            reason.isEmpty() ? null : reason, sessionType
+                    );
+                    if (justified && existingAbsence.isJustified()) {
+                        updated.setJustificationDate(existingAbsence.getJustificationDate());
+                    }
+                    dataManager.updateAbsence(updated);
                 }
 
                 loadAllData();
@@ -1139,100 +1163,68 @@ public class EnhancedProfessorController {
 
         if (view.getExportBtn() != null)
             view.getExportBtn().addActionListener(e -> exportReportToFile());
-    }
 
-    private ProfStats computeStats() {
-        ProfStats stats = new ProfStats();
+        if (view.getExportModuleBtn() != null)
+            view.getExportModuleBtn().addActionListener(e -> exportModuleReport());
+    }
 
-        stats.globalAverage = cachedGrades.stream()
-                .mapToDouble(Grade::getValue)
-                .average()
-                .orElse(0.0);
+    /** Statistiques du professeur : une seule jointure inscriptions / notes / absences. */
+    private ProfessorAnalytics computeStats() {
+        return ProfessorAnalytics.compute(
+                cachedModules, dataManager.inscriptions(), cachedGrades, cachedAbsences, averaging);
+    }
 
-        long passingGrades = cachedGrades.stream()
-                .filter(Grade::isPassing)
-                .count();
-        stats.successRate = cachedGrades.isEmpty() ? 0 :
-                (passingGrades * 100.0) / cachedGrades.size();
+    private List<String> getModuleCodes() {
+        return cachedModules.stream().map(Module::getCode).collect(Collectors.toList());
+    }
 
-        int totalAbsences = cachedAbsences.size();
+    /** Moyenne de classe pondérée (AveragingEngine) sur les modules du professeur, 0 sans note. */
+    private double getClassAverage() {
+        double avg = averaging.getClassAverage(getModuleCodes());
+        return Double.isNaN(avg) ? 0.0 : avg;
+    }
 
-        int plannedSessions = 0;
-        for (Module m : cachedModules) {
-            long studentsInModule = cachedStudents.stream()
-                    .filter(s -> dataManager.isStudentRegistered(s.getCode(), m.getCode()))
-                    .count();
-            plannedSessions += studentsInModule * 15; // heuristique : 15 séances par module
+    /**
+     * Rapport du professeur pour la version des données chargées.
+     * - 1er niveau : ReportCache (références soft, libérables par le GC)
+     * - 2e niveau  : texte hors tas (CacheManager) si le rapport a été libéré
+     */
+    private ProfessorReport getReport() {
+        ReportCache reportCache = ReportCache.getInstance();
+        ProfessorReport report = reportCache.get(professor.getCode(), loadedVersion, ProfessorReport.class);
+        if (report != null) return report;
+
+        ProfessorAnalytics stats = computeStats();
+
+        CacheManager cache = CacheManager.getInstance();
+        String key = reportPayloadKey();
+        String text = cache.getCachedPayload(key);
+        if (text == null) {
+            text = buildReportText(stats);
+            cache.invalidatePayloads(reportPayloadPrefix()); // versions précédentes
+            cache.cachePayload(key, text);
         }
-        stats.presenceRate = plannedSessions > 0
-                ? ((plannedSessions - totalAbsences) * 100.0) / plannedSessions
-                : 100.0;
 
-        stats.studentsInDifficulty = cachedStudents.stream()
-                .filter(s -> {
-                    double avg = cachedGrades.stream()
-                            .filter(g -> g.getStudentCode().equals(s.getCode()))
-                            .mapToDouble(Grade::getValue)
-                            .average()
-                            .orElse(20.0);
-                    return avg < 10.0;
-                })
-                .count();
-
-        return stats;
+        report = new ProfessorReport(stats, text);
+        reportCache.put(professor.getCode(), loadedVersion, report);
+        return report;
     }
 
-    private String buildReportText() {
-        int totalStudents = cachedStudents.size();
-        int totalModules  = cachedModules.size();
-
-        ProfStats stats = computeStats();
-
-        StringBuilder report = new StringBuilder();
-        report.append("RAPPORT STATISTIQUE DU PROFESSEUR\n");
-        report.append("Professeur : ").append(professor.getFullName()).append("\n");
-        report.append("Code : ").append(professor.getCode()).append("\n");
-        report.append("Date : ").append(LocalDate.now().format(
-                DateTimeFormatter.ofPattern("dd/MM/yyyy"))).append("\n\n");
-
-        report.append("STATISTIQUES GÉNÉRALES\n");
-        report.append("Nombre d'étudiants : ").append(totalStudents).append("\n");
-        report.append("Modules enseignés : ").append(totalModules).append("\n");
-        report.append("Notes enregistrées : ").append(cachedGrades.size()).append("\n");
-        report.append("Absences enregistrées : ").append(cachedAbsences.size()).append("\n\n");
-
-        report.append("PERFORMANCE ACADÉMIQUE\n");
-        report.append(String.format("Moyenne générale : %.2f/20\n", stats.globalAverage));
-        report.append(String.format("Taux de réussite : %.2f%%\n", stats.successRate));
-        report.append(String.format("Taux de présence (approx.) : %.2f%%\n", stats.presenceRate));
-        report.append("Étudiants en difficulté (moyenne < 10) : ").append(stats.studentsInDifficulty).append("\n\n");
+    private String reportPayloadPrefix() {
+        return "report_prof_" + professor.getCode() + "_";
+    }
 
-        report.append("DÉTAILS PAR MODULE\n");
-        for (Module m : cachedModules) {
-            List<Grade> mGrades = cachedGrades.stream()
-                    .filter(g -> g.getModuleCode().equals(m.getCode()))
-                    .collect(Collectors.toList());
-            if (!mGrades.isEmpty()) {
-                double mAvg = mGrades.stream()
-                        .mapToDouble(Grade::getValue)
-                        .average()
-                        .orElse(0.0);
-                long mPass = mGrades.stream().filter(Grade::isPassing).count();
-                double mRate = mGrades.isEmpty() ? 0 : (mPass * 100.0) / mGrades.size();
-
-                report.append(String.format("- %s (%s) : moyenne %.2f/20, %d notes, %.2f%% de réussite\n",
-                        m.getName(), m.getCode(), mAvg, mGrades.size(), mRate));
-            } else {
-                report.append(String.format("- %s (%s) : aucune note enregistrée\n",
-                        m.getName(), m.getCode()));
-            }
-        }
+    private String reportPayloadKey() {
+        return reportPayloadPrefix() + loadedVersion;
+    }
 
-        return report.toString();
+    private String buildReportText(ProfessorAnalytics stats) {
+        return ReportRenderer.professorReport(professor, cachedModules, cachedStudents.size(),
+                cachedGrades.size(), cachedAbsences.size(), stats);
     }
 
     private void generateReportDialog() {
-        String reportText = buildReportText();
+        String reportText = getReport().text;
 
         JDialog dialog = new JDialog(view, "Rapport Statistique", true);
         dialog.setLayout(new BorderLayout(10, 10));
@@ -1266,8 +1258,21 @@ public class EnhancedProfessorController {
         if (result != JFileChooser.APPROVE_OPTION) return;
 
         File file = chooser.getSelectedFile();
+
+        // Rapport pré-calculé par ReportScheduler pour les données actuelles : simple copie
+        Path precomputed = ReportScheduler.getInstance().getProfessorReport(professor.getCode());
+        if (precomputed != null) {
+            try {
+                Files.copy(precomputed, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                showSuccess("Rapport exporté avec succès : " + file.getName());
+                return;
+            } catch (Exception e) {
+                System.err.println("Rapport pré-calculé illisible, recalcul : " + e.getMessage());
+            }
+        }
+
         try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
-            writer.print(buildReportText());
+            writer.print(getReport().text);
             showSuccess("Rapport exporté avec succès : " + file.getName());
         } catch (Exception e) {
             e.printStackTrace();
@@ -1275,29 +1280,73 @@ public class EnhancedProfessorController {
         }
     }
 
+    /** Relevé CSV d'un module : fichier pré-calculé s'il est à jour, sinon calcul immédiat. */
+    private void exportModuleReport() {
+        if (cachedModules == null || cachedModules.isEmpty()) {
+            showInfo("Aucun module à exporter.");
+            return;
+        }
+
+        String[] choices = cachedModules.stream()
+                .map(m -> m.getCode() + " - " + m.getName())
+                .toArray(String[]::new);
+        Object choice = JOptionPane.showInputDialog(view, "Module :", "Exporter le relevé d'un module",
+                JOptionPane.QUESTION_MESSAGE, null, choices, choices[0]);
+        if (choice == null) return;
+        Module module = cachedModules.get(Arrays.asList(choices).indexOf(choice));
+
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Exporter le relevé du module");
+        chooser.setSelectedFile(new File("releve_" + module.getCode() + "_" + LocalDate.now() + ".csv"));
+        if (chooser.showSaveDialog(view) != JFileChooser.APPROVE_OPTION) return;
+
+        File file = chooser.getSelectedFile();
+
+        Path precomputed = ReportScheduler.getInstance().getModuleReport(module.getCode());
+        if (precomputed != null) {
+            try {
+                Files.copy(precomputed, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                showSuccess("Relevé exporté avec succès : " + file.getName());
+                return;
+            } catch (Exception e) {
+                System.err.println("Relevé pré-calculé illisible, recalcul : " + e.getMessage());
+            }
+        }
+
+        try (CsvWriter csv = new CsvWriter(file.toPath(), CsvWriter.COMMA)) {
+            List<Inscription> inscriptions = new ArrayList<>();
+            for (Inscription ins : dataManager.inscriptions()) {
+                if (module.getCode().equals(ins.getModuleCode())) inscriptions.add(ins);
+            }
+            List<Grade> grades = new ArrayList<>();
+            for (Grade g : dataManager.grades()) {
+                if (module.getCode().equals(g.getModuleCode())) grades.add(g);
+            }
+            Map<String, Student> students = new HashMap<>();
+            for (Student s : dataManager.students()) {
+                students.put(s.getCode(), s);
+            }
+            ReportRenderer.writeModuleReport(csv, module, inscriptions, grades, students, averaging);
+            showSuccess("Relevé exporté avec succès : " + file.getName());
+        } catch (Exception e) {
+            e.printStackTrace();
+            showError("Erreur lors de l'export du relevé : " + e.getMessage());
+        }
+    }
+
     // ========================================================================
     // DASHBOARD, TABLES & PROFIL
     // ========================================================================
     private void updateDashboardStats() {
         int totalStudents = cachedStudents != null ? cachedStudents.size() : 0;
         int totalModules  = cachedModules != null ? cachedModules.size()  : 0;
-        double avg = (cachedGrades == null || cachedGrades.isEmpty())
-                ? 0.0
-                : cachedGrades.stream().mapToDouble(Grade::getValue).average().orElse(0.0);
+        double avg = getClassAverage();
 
+        // Inscrits sans note d'examen : compteurs tenus à jour par DataManager
         int toGrade = 0;
-        if (cachedModules != null && cachedStudents != null) {
+        if (cachedModules != null) {
             for (Module m : cachedModules) {
-                for (Student s : cachedStudents) {
-                    boolean hasExam = cachedGrades.stream().anyMatch(
-                            g -> g.getModuleCode().equals(m.getCode())
-                                    && g.getStudentCode().equals(s.getCode())
-                                    && g.getType().equalsIgnoreCase(Grade.TYPE_EXAM)
-                    );
-                    if (!hasExam && dataManager.isStudentRegistered(s.getCode(), m.getCode())) {
-                        toGrade++;
-                    }
-                }
+                toGrade += dataManager.getPendingGradeCount(m.getCode(), Grade.TYPE_EXAM);
             }
         }
 
@@ -1337,12 +1386,10 @@ public class EnhancedProfessorController {
         DefaultTableModel model = (DefaultTableModel) table.getModel();
         model.setRowCount(0);
 
+        List<String> moduleCodes = getModuleCodes();
         for (Student s : students) {
-            double avg = cachedGrades.stream()
-                    .filter(g -> g.getStudentCode().equals(s.getCode()))
-                    .mapToDouble(Grade::getValue)
-                    .average()
-                    .orElse(0.0);
+            double avg = averaging.getAverage(s.getCode(), moduleCodes);
+            if (Double.isNaN(avg)) avg = 0.0;
 
             long absCount = cachedAbsences.stream()
                     .filter(a -> a.getStudentCode().equals(s.getCode()))
@@ -1443,9 +1490,7 @@ public class EnhancedProfessorController {
         addInfoRow(mainPanel, "Total crédits enseignés :", String.valueOf(professor.getTotalCredits()));
         addInfoRow(mainPanel, "Codes modules :", String.join(", ", professor.getModuleCodes()));
 
-        double globalAvg = cachedGrades.isEmpty()
-                ? 0.0
-                : cachedGrades.stream().mapToDouble(Grade::getValue).average().orElse(0.0);
+        double globalAvg = getClassAverage();
         addInfoRow(mainPanel, "Moyenne globale des étudiants :", String.format("%.2f/20", globalAvg));
 
         JScrollPane scrollPane = new JScrollPane(mainPanel);
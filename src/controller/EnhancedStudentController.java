@@ -5,6 +5,10 @@ import model.entities.Absence;
 import model.entities.Grade;
 import model.entities.Module;
 import model.entities.Student;
+import model.export.CsvWriter;
+import model.stats.AveragingEngine;
+import model.stats.GradeHistory;
+import model.stats.RankingService;
 import view.EnhancedStudentView;
 import view.LoginView;
 import view.components.ModernUIComponents.ModernTable;
@@ -13,7 +17,6 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.File;
-import java.io.PrintWriter;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -30,9 +33,14 @@ import java.util.stream.Collectors;
  */
 public class EnhancedStudentController {
 
+    private static final int SPARKLINE_POINTS = 30; // points max de la sparkline de moyenne
+
     private final EnhancedStudentView view;
     private final Student student;
     private final DataManager dataManager;
+    private final AveragingEngine averaging;
+    private final RankingService ranking;
+    private final GradeHistory gradeHistory;
 
     // Caches
     private List<Grade>   cachedGrades;
@@ -42,6 +50,9 @@ public class EnhancedStudentController {
         this.view = Objects.requireNonNull(view, "view ne doit pas être null");
         this.student = Objects.requireNonNull(student, "student ne doit pas être null");
         this.dataManager = DataManager.getInstance();
+        this.averaging = AveragingEngine.getInstance();
+        this.ranking = RankingService.getInstance();
+        this.gradeHistory = GradeHistory.getInstance();
 
         initController();
         reloadCaches();
@@ -142,51 +153,49 @@ public class EnhancedStudentController {
     }
 
     private void updateStatistics() {
-        double average       = calculateAverage(cachedGrades);
-        int validatedCredits = calculateValidatedCredits(cachedGrades);
+        double average       = averaging.getAverageOrDefault(student.getCode(), 0.0);
+        int validatedCredits = calculateValidatedCredits();
         int absencesCount    = cachedAbsences.size();
-        String rankText      = calculateRankText(average, absencesCount);
+        String rankText      = calculateRankText();
 
         view.updateAverageCard(String.format("%.2f", average));
+        updateAverageHistory();
         view.updateCreditsCard(validatedCredits + "/60"); // 60 = valeur cible
         view.updateAbsencesCard(String.valueOf(absencesCount));
         view.updateRankCard(rankText);
     }
 
-    private double calculateAverage(List<Grade> grades) {
-        if (grades == null || grades.isEmpty()) return 0.0;
-        return grades.stream().mapToDouble(Grade::getValue).average().orElse(0.0);
+    /** Sparkline de la moyenne cumulée, et évolution depuis la note précédente. */
+    private void updateAverageHistory() {
+        double[] sparkline = gradeHistory.getSparkline(student.getCode(), null, SPARKLINE_POINTS);
+        double[] running = gradeHistory.getRunningAverages(student.getCode(), null);
+        // Mêmes règles qu'AveragingEngine : le dernier point est la moyenne affichée sur la carte
+        double last = running.length > 1 ? running[running.length - 1] : Double.NaN;
+        double previous = running.length > 1 ? running[running.length - 2] : Double.NaN;
+        String trend = !Double.isNaN(last) && !Double.isNaN(previous)
+                ? String.format("%+.2f depuis la dernière note", last - previous)
+                : "";
+        view.updateAverageHistory(trend, sparkline);
     }
 
-    private int calculateValidatedCredits(List<Grade> grades) {
-        if (grades == null || grades.isEmpty()) return 0;
-
-        Map<String, List<Grade>> byModule = grades.stream()
-                .collect(Collectors.groupingBy(Grade::getModuleCode));
-
+    /** Crédits des modules validés (moyenne pondérée du module >= 10). */
+    private int calculateValidatedCredits() {
         int totalCredits = 0;
-        for (Map.Entry<String, List<Grade>> e : byModule.entrySet()) {
-            String moduleCode = e.getKey();
-            List<Grade> moduleGrades = e.getValue();
-
-            double moduleAvg = moduleGrades.stream()
-                    .mapToDouble(Grade::getValue)
-                    .average()
-                    .orElse(0.0);
-
-            if (moduleAvg >= 10.0) {
-                Module m = dataManager.getModule(moduleCode);
+        for (Map.Entry<String, Double> e : averaging.getModuleAverages(student.getCode()).entrySet()) {
+            if (e.getValue() >= 10.0) {
+                Module m = dataManager.getModule(e.getKey());
                 if (m != null) totalCredits += m.getCredits();
             }
         }
         return totalCredits;
     }
 
-    private String calculateRankText(double average, int absencesCount) {
-        if (average >= 16 && absencesCount <= 2) return "Top 5%";
-        if (average >= 14 && absencesCount <= 5) return "Top 20%";
-        if (average >= 10)                       return "Dans la moyenne";
-        return "À surveiller";
+    /** Rang réel dans la promotion (année × spécialité), ex: "Top 5% (3e/52)". */
+    private String calculateRankText() {
+        RankingService.Rank rank = ranking.getCohortRank(student.getCode());
+        if (rank == null) return "Non classé";
+        String position = rank.getPosition() == 1 ? "1er" : rank.getPosition() + "e";
+        return "Top " + rank.getTopPercent() + "% (" + position + "/" + rank.getTotal() + ")";
     }
 
     // ========================================================================
@@ -242,7 +251,8 @@ public class EnhancedStudentController {
     }
 
     private void exportGrades() {
-        if (cachedGrades.isEmpty()) {
+        Iterable<Grade> grades = dataManager.studentGrades(student.getCode());
+        if (!grades.iterator().hasNext()) {
             showInfo("Aucune note à exporter.");
             return;
         }
@@ -255,22 +265,19 @@ public class EnhancedStudentController {
         if (result != JFileChooser.APPROVE_OPTION) return;
 
         File file = fileChooser.getSelectedFile();
-        try (PrintWriter writer = new PrintWriter(file, "UTF-8")) {
-            writer.println("Module;Code;Note;Coefficient;Type;Date;Mention");
-            for (Grade grade : cachedGrades) {
+        try (CsvWriter csv = new CsvWriter(file.toPath(), CsvWriter.SEMICOLON)) {
+            csv.row("Module", "Code", "Note", "Coefficient", "Type", "Date", "Mention");
+            csv.writeRows(grades, (grade, out) -> {
                 Module m = dataManager.getModule(grade.getModuleCode());
                 String moduleName = m != null ? m.getName() : grade.getModuleCode();
-                writer.printf(
-                        "%s;%s;%.2f;%s;%s;%s;%s%n",
-                        moduleName,
-                        grade.getModuleCode(),
-                        grade.getValue(),
-                        grade.getCoefficient(),
-                        grade.getType(),
-                        grade.getFormattedDate(),
-                        grade.getMention()
-                );
-            }
+                out.field(moduleName)
+                   .field(grade.getModuleCode())
+                   .field(grade.getValue(), 2)
+                   .field(String.valueOf(grade.getCoefficient()))
+                   .field(grade.getType())
+                   .field(grade.getFormattedDate())
+                   .field(grade.getMention());
+            });
             showInfo("✓ Notes exportées avec succès.\nFichier : " + file.getAbsolutePath());
         } catch (Exception e) {
             showError("Erreur lors de l'écriture du fichier : " + e.getMessage());
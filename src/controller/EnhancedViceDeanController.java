@@ -5,6 +5,14 @@ import model.dao.DataManager;
 import model.dao.NotificationManager;
 import model.entities.*;
 import model.entities.Module;
+import model.export.CsvWriter;
+import model.report.FacultyReport;
+import model.report.FacultyReportEngine;
+import model.report.ReportRenderer;
+import model.report.ReportScheduler;
+import model.stats.AcademicCube;
+import model.stats.AveragingEngine;
+import model.stats.DashboardStatsProjector;
 import view.EnhancedViceDeanView;
 import view.LoginView;
 import view.components.AnimatedComponents;
@@ -14,10 +22,13 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.File;
-import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
@@ -45,6 +56,26 @@ public class EnhancedViceDeanController {
     private List<Student>   cachedStudents   = new ArrayList<>();
     private List<Professor> cachedProfessors = new ArrayList<>();
     private List<Module>    cachedModules    = new ArrayList<>();
+    private long            cachesVersion    = -1;
+
+    // Snapshot du dashboard, partagé entre sessions et valable pour une version des données
+    private static volatile DashboardSnapshot dashboardSnapshot;
+    private DashboardSnapshot displayedSnapshot;
+
+    // Calcul parallèle du rapport de faculté (export CSV)
+    private final FacultyReportEngine reportEngine = new FacultyReportEngine();
+
+    // Moyennes pondérées partagées par les trois espaces
+    private final AveragingEngine averaging = AveragingEngine.getInstance();
+
+    // Agrégats croisés (année × spécialité × module × semestre) pour les statistiques
+    private final AcademicCube cube = AcademicCube.getInstance();
+
+    // Compteurs du dashboard tenus à jour par les événements de DataManager
+    private final DashboardStatsProjector dashboardStats = DashboardStatsProjector.getInstance();
+
+    // Rapports générés en arrière-plan (nuit ou à la demande), servis à l'export s'ils sont à jour
+    private final ReportScheduler reportScheduler = ReportScheduler.getInstance();
 
     // =========================================================================
     // CONSTRUCTEUR
@@ -81,14 +112,19 @@ public class EnhancedViceDeanController {
     }
 
     private void reloadCaches() {
+        long version = dataManager.getDataVersion();
+        if (version == cachesVersion) return; // rien n'a changé depuis le dernier chargement
+
         try {
             cachedStudents   = Optional.ofNullable(dataManager.getAllStudents()).orElseGet(ArrayList::new);
             cachedProfessors = Optional.ofNullable(dataManager.getAllProfessors()).orElseGet(ArrayList::new);
             cachedModules    = Optional.ofNullable(dataManager.getAllModules()).orElseGet(ArrayList::new);
+            cachesVersion    = version;
         } catch (Exception e) {
             cachedStudents   = new ArrayList<>();
             cachedProfessors = new ArrayList<>();
             cachedModules    = new ArrayList<>();
+            cachesVersion    = -1;
             System.err.println("Erreur rechargement des caches : " + e.getMessage());
         }
     }
@@ -589,13 +625,12 @@ public class EnhancedViceDeanController {
     }
 
     private void loadStudentsTable() {
-        updateStudentsTableWithGrades(cachedStudents, dataManager.getAllGrades());
+        updateStudentsTableWithGrades(cachedStudents);
     }
 
     private void filterAndDisplayStudents(String searchTerm) {
         try {
             List<Student> students = new ArrayList<>(cachedStudents);
-            List<Grade> allGrades  = dataManager.getAllGrades();
 
             String levelFilter  = (String) (view.getLevelFilter()  != null ? view.getLevelFilter().getSelectedItem()  : "Tous niveaux");
             String statusFilter = (String) (view.getStatusFilter() != null ? view.getStatusFilter().getSelectedItem() : "Tous statuts");
@@ -616,7 +651,7 @@ public class EnhancedViceDeanController {
             if (statusFilter != null && !"Tous statuts".equals(statusFilter)) {
                 students = students.stream()
                         .filter(s -> {
-                            double avg = calculateRealStudentAverage(s.getCode(), allGrades);
+                            double avg = calculateRealStudentAverage(s.getCode());
                             return switch (statusFilter) {
                                 case "Admis"    -> avg >= 10.0;
                                 case "Redouble" -> avg >= 7.0 && avg < 10.0;
@@ -638,13 +673,13 @@ public class EnhancedViceDeanController {
                         .collect(Collectors.toList());
             }
 
-            updateStudentsTableWithGrades(students, allGrades);
+            updateStudentsTableWithGrades(students);
         } catch (Exception e) {
             showError("Erreur lors du filtrage des étudiants : " + e.getMessage());
         }
     }
 
-    private void updateStudentsTableWithGrades(List<Student> students, List<Grade> allGrades) {
+    private void updateStudentsTableWithGrades(List<Student> students) {
         ModernTable table = view.getStudentsTable();
         if (table == null) return;
 
@@ -652,7 +687,7 @@ public class EnhancedViceDeanController {
         model.setRowCount(0);
 
         for (Student s : students) {
-            double avg = calculateRealStudentAverage(s.getCode(), allGrades);
+            double avg = calculateRealStudentAverage(s.getCode());
             String status = getStudentStatus(avg);
 
             String levelLabel;
@@ -1172,6 +1207,7 @@ public class EnhancedViceDeanController {
     private void bindReportButtons() {
         if (view.getExportReportBtn()  != null) view.getExportReportBtn().addActionListener(e  -> exportReport());
         if (view.getGenerateStatsBtn() != null) view.getGenerateStatsBtn().addActionListener(e -> generateStatistics());
+        if (view.getBatchReportsBtn()  != null) view.getBatchReportsBtn().addActionListener(e  -> generateBatchReports());
     }
 
     private void exportReport() {
@@ -1181,78 +1217,34 @@ public class EnhancedViceDeanController {
         if (chooser.showSaveDialog(view) != JFileChooser.APPROVE_OPTION) return;
 
         File file = chooser.getSelectedFile();
-        try (PrintWriter writer = new PrintWriter(file)) {
+
+        // Rapport pré-calculé pour ces données : simple copie
+        Path precomputed = reportScheduler.getFacultyReport();
+        if (precomputed != null) {
+            try {
+                Files.copy(precomputed, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                showSuccess("✅ Rapport exporté avec succès : " + file.getName());
+                return;
+            } catch (Exception e) {
+                System.err.println("Rapport pré-calculé illisible, recalcul : " + e.getMessage());
+            }
+        }
+
+        try (CsvWriter csv = new CsvWriter(file.toPath(), CsvWriter.COMMA)) {
             List<Student> students            = dataManager.getAllStudents();
             List<Professor> professors        = dataManager.getAllProfessors();
             List<Module> modules              = dataManager.getAllModules();
-            List<Grade> allGrades             = dataManager.getAllGrades();
-            List<Inscription> allInscriptions = dataManager.getAllInscriptions();
-
-            writer.println("RAPPORT ADMINISTRATIF," + LocalDate.now());
-            writer.println();
 
-            int totalStudents = students.size();
-            int totalTeachers = professors.size();
-            int totalModules  = modules.size();
+            // Un seul passage (parallèle) sur les notes et les inscriptions, lues sans copie :
+            // l'EDT reste bloqué dans compute(), aucune modification ne peut survenir
+            FacultyReport report = reportEngine.compute(students, modules,
+                    dataManager.grades(), dataManager.inscriptions(), averaging.getAverages());
 
-            long nbAdmis = students.stream()
-                    .filter(s -> calculateRealStudentAverage(s.getCode(), allGrades) >= 10.0)
-                    .count();
-            double tauxReussite = (totalStudents > 0)
-                    ? (nbAdmis * 100.0 / totalStudents)
-                    : 0.0;
-
-            writer.println("STATISTIQUES GÉNÉRALES");
-            writer.println("Nombre d'étudiants," + totalStudents);
-            writer.println("Nombre d'enseignants," + totalTeachers);
-            writer.println("Nombre de modules," + totalModules);
-            writer.println("Étudiants admis," + nbAdmis);
-            writer.println("Taux de réussite," + String.format("%.1f%%", tauxReussite));
-            writer.println();
-
-            writer.println("DÉTAILS PAR MODULE");
-            writer.println("Code,Nom,Professeur,Crédits,Inscrits,Notes,Moyenne,Succès (%)");
-
-            for (Module m : modules) {
-                String code = m.getCode();
-                User profUser = (m.getProfessorCode() != null)
-                        ? dataManager.getUser(m.getProfessorCode())
-                        : null;
-                String profName = profUser != null ? profUser.getFullName() : "Non affecté";
-
-                long nbInscrits = allInscriptions.stream()
-                        .filter(ins -> ins.getModuleCode().equals(code))
-                        .count();
-
-                List<Grade> moduleGrades = allGrades.stream()
-                        .filter(g -> g.getModuleCode().equals(code))
-                        .toList();
-
-                int nbNotes = moduleGrades.size();
-                double moyenneModule = moduleGrades.stream()
-                        .mapToDouble(Grade::getValue)
-                        .average()
-                        .orElse(0.0);
-
-                long nbNotesAdmissibles = moduleGrades.stream()
-                        .filter(Grade::isPassing)
-                        .count();
-
-                double tauxSuccesModule = (nbNotes > 0)
-                        ? (nbNotesAdmissibles * 100.0 / nbNotes)
-                        : 0.0;
-
-                writer.println(String.join(",",
-                        code,
-                        safeCsv(m.getName()),
-                        safeCsv(profName),
-                        String.valueOf(m.getCredits()),
-                        String.valueOf(nbInscrits),
-                        String.valueOf(nbNotes),
-                        String.format("%.2f", moyenneModule),
-                        String.format("%.1f", tauxSuccesModule)
-                ));
-            }
+            ReportRenderer.writeFacultyReport(csv, report, students.size(), professors.size(), modules.size(),
+                    code -> {
+                        User profUser = dataManager.getUser(code);
+                        return profUser != null ? profUser.getFullName() : null;
+                    });
 
             showSuccess("✅ Rapport exporté avec succès : " + file.getName());
         } catch (Exception e) {
@@ -1260,37 +1252,43 @@ public class EnhancedViceDeanController {
         }
     }
 
+    /** Génère tous les rapports (faculté, professeurs, modules) en arrière-plan dans reports/. */
+    private void generateBatchReports() {
+        if (reportScheduler.isCurrent()) {
+            showInfo("Les rapports de reports/ sont déjà à jour.");
+            return;
+        }
+        AnimatedComponents.showSlideNotification(view, "Génération des rapports lancée en arrière-plan…",
+                AnimatedComponents.NotificationType.INFO);
+        reportScheduler.requestNow().whenComplete((manifest, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                showError("Erreur lors de la génération des rapports : " + cause.getMessage());
+            } else {
+                showSuccess("✅ " + manifest.getFileCount() + " rapports générés dans reports/");
+            }
+        }));
+    }
+
     private void generateStatistics() {
         try {
-            List<Student> students   = dataManager.getAllStudents();
-            List<Professor> profs    = dataManager.getAllProfessors();
-            List<Module> modules     = dataManager.getAllModules();
-            List<Grade> allGrades    = dataManager.getAllGrades();
-
-            int totalStudents = students.size();
-            int totalTeachers = profs.size();
-            int totalModules  = modules.size();
-
-            long nbAdmis = students.stream()
-                    .filter(s -> calculateRealStudentAverage(s.getCode(), allGrades) >= 10.0)
-                    .count();
-            double tauxReussite = (totalStudents > 0)
-                    ? (nbAdmis * 100.0 / totalStudents)
-                    : 0.0;
+            int totalStudents = dashboardStats.getTotalStudents();
+            int totalTeachers = dashboardStats.getTotalProfessors();
+            int totalModules  = dashboardStats.getTotalModules();
 
-            double moyenneGenerale = students.stream()
-                    .mapToDouble(s -> calculateRealStudentAverage(s.getCode(), allGrades))
-                    .average()
-                    .orElse(0.0);
+            // Promotion "toutes années / toutes spécialités" du cube
+            AcademicCube.CohortCell all = cube.cohort(null, null);
+            long nbAdmis = all.admitted;
+            double tauxReussite = all.getSuccessRate();
+            double moyenneGenerale = all.getAverage();
 
-            long modulesAffectes = modules.stream()
-                    .filter(m -> m.getProfessorCode() != null && !m.getProfessorCode().isEmpty())
-                    .count();
+            long modulesAffectes = dashboardStats.getAssignedModules();
             double tauxAffectation = (totalModules > 0)
                     ? (modulesAffectes * 100.0 / totalModules)
                     : 0.0;
 
-            showInfo(String.format(
+            StringBuilder text = new StringBuilder(String.format(
                     "📊 STATISTIQUES COMPLÈTES\n\n" +
                             "👥 ÉTUDIANTS\n" +
                             "  Total : %d\n" +
@@ -1308,17 +1306,51 @@ public class EnhancedViceDeanController {
                     totalModules,
                     modulesAffectes, totalModules, tauxAffectation
             ));
+            appendCrossTabs(text);
+
+            JTextArea area = new JTextArea(text.toString(), 25, 48);
+            area.setEditable(false);
+            area.setFont(new Font("Monospaced", Font.PLAIN, 12));
+            JOptionPane.showMessageDialog(view, new JScrollPane(area),
+                    "ℹ️ Information", JOptionPane.INFORMATION_MESSAGE);
         } catch (Exception e) {
             showError("Erreur lors de la génération des statistiques : " + e.getMessage());
         }
     }
 
-    private String safeCsv(String s) {
-        if (s == null) return "";
-        if (s.contains(",") || s.contains("\"")) {
-            return "\"" + s.replace("\"", "\"\"") + "\"";
+    /** Tableaux croisés lus dans le cube : chaque ligne est une tranche précalculée. */
+    private void appendCrossTabs(StringBuilder text) {
+        text.append("\n🎓 RÉUSSITE PAR NIVEAU ET SPÉCIALITÉ\n");
+        for (Object year : cube.getMembers(AcademicCube.Dimension.YEAR)) {
+            int y = (Integer) year;
+            String level = y <= 3 ? "L" + y : "M" + (y - 3);
+            for (Object speciality : cube.getMembers(AcademicCube.Dimension.SPECIALITY)) {
+                AcademicCube.CohortCell c = cube.cohort(y, (String) speciality);
+                if (c.students == 0) continue;
+                text.append(String.format("  %-3s %-20s : %3d étudiant(s), %5.1f%% admis, moy. %.2f\n",
+                        level, speciality, c.students, c.getSuccessRate(), c.getAverage()));
+            }
+        }
+
+        text.append("\n📅 MOYENNES PAR SEMESTRE ET MODULE\n");
+        for (Object semester : cube.getMembers(AcademicCube.Dimension.SEMESTER)) {
+            int sem = (Integer) semester;
+            AcademicCube.Cell total = cube.slice(null, null, null, sem);
+            text.append(String.format("  S%d : moyenne %.2f / 20, %.1f%% de modules validés\n",
+                    sem, total.getAverage(), total.getPassRate()));
+            for (Map.Entry<Object, AcademicCube.Cell> e
+                    : cube.drillDown(AcademicCube.Dimension.MODULE, null, null, null, sem).entrySet()) {
+                if (e.getValue().averageCount == 0) continue;
+                text.append(String.format("    %-8s : %.2f / 20 (%d étudiant(s))\n",
+                        e.getKey(), e.getValue().getAverage(), e.getValue().averageCount));
+            }
+        }
+
+        text.append("\n🚫 ABSENCES PAR TYPE DE SÉANCE\n");
+        for (Map.Entry<String, Integer> e
+                : cube.slice(null, null, null, null).getAbsencesBySessionType().entrySet()) {
+            text.append(String.format("  %-6s : %d\n", e.getKey(), e.getValue()));
         }
-        return s;
     }
 
     // =========================================================================
@@ -1524,96 +1556,107 @@ public class EnhancedViceDeanController {
     // =========================================================================
     // DASHBOARD (STATISTIQUES RÉELLES + QUICK STATS + TÂCHES + ACTIONS)
     // =========================================================================
+    /** Résultat complet du calcul du dashboard pour une version donnée des données. */
+    private static final class DashboardSnapshot {
+        long   version;
+        int    totalStudents;
+        int    totalTeachers;
+        int    totalModules;
+        double successRate;
+        EnhancedViceDeanView.QuickStats quickStats;
+        int    pendingInscriptions;
+        int    unassignedModules;
+        List<String> recentActions;
+    }
+
     private void refreshDashboardStats() {
         try {
-            List<Student>   students   = dataManager.getAllStudents();
-            List<Professor> professors = dataManager.getAllProfessors();
-            List<Module>    modules    = dataManager.getAllModules();
-            List<Grade>     allGrades  = dataManager.getAllGrades();
-            List<Inscription> ins      = dataManager.getAllInscriptions();
-            List<User>      users      = dataManager.getAllUsers();
-
-            int totalStudents = students.size();
-            int totalTeachers = professors.size();
-            int totalModules  = modules.size();
-
-            long nbAdmis = students.stream()
-                    .filter(s -> calculateRealStudentAverage(s.getCode(), allGrades) >= 10.0)
-                    .count();
-            double successRate = (totalStudents > 0)
-                    ? (nbAdmis * 100.0 / totalStudents)
-                    : 0.0;
+            DashboardSnapshot snapshot = getDashboardSnapshot();
+            if (snapshot == displayedSnapshot) return; // déjà affiché, rien n'a changé
 
-            // Cartes principales
             view.updateDashboardCards(
-                    totalStudents,
-                    totalTeachers,
-                    totalModules,
-                    successRate
+                    snapshot.totalStudents,
+                    snapshot.totalTeachers,
+                    snapshot.totalModules,
+                    snapshot.successRate
             );
+            view.updateQuickStats(snapshot.quickStats);
+            view.updatePendingTasks(snapshot.pendingInscriptions, snapshot.unassignedModules, snapshot.successRate);
+            view.updateRecentActions(snapshot.recentActions);
 
-            // -------- Statistiques rapides réalistes --------
-            EnhancedViceDeanView.QuickStats qs = new EnhancedViceDeanView.QuickStats();
-            qs.totalInscriptions     = ins.size();
-            qs.validatedInscriptions = (int) ins.stream().filter(Inscription::isValidated).count();
-            qs.totalModules          = totalModules;
-            qs.assignedModules       = (int) modules.stream()
-                    .filter(m -> m.getProfessorCode() != null && !m.getProfessorCode().isEmpty())
-                    .count();
-            qs.activeAccounts        = users.size(); // si tu as un flag "actif", adapte ici
-
-            view.updateQuickStats(qs);
-
-            // -------- Tâches en attente réalistes --------
-            int pendingInsc = (int) ins.stream().filter(i -> !i.isValidated()).count();
-            int unassigned  = (int) modules.stream()
-                    .filter(m -> m.getProfessorCode() == null || m.getProfessorCode().isEmpty())
-                    .count();
-
-            view.updatePendingTasks(pendingInsc, unassigned, successRate);
-
-            // -------- Actions récentes réalistes --------
-            List<String> actions = new ArrayList<>();
-
-            // Dernier compte créé (code le plus "grand" -> dernier créé dans nos démos)
-            users.stream()
-                    .max(Comparator.comparing(User::getCode))
-                    .ifPresent(u -> actions.add("Compte créé : " + u.getCode() + " (" + u.getRole() + ")"));
-
-            // Dernier module affecté (module avec professeur)
-            modules.stream()
-                    .filter(m -> m.getProfessorCode() != null && !m.getProfessorCode().isEmpty())
-                    .max(Comparator.comparing(Module::getCode))
-                    .ifPresent(m -> {
-                        User prof = dataManager.getUser(m.getProfessorCode());
-                        String profName = (prof != null) ? prof.getFullName() : m.getProfessorCode();
-                        actions.add("Module " + m.getCode() + " affecté à " + profName);
-                    });
+            displayedSnapshot = snapshot;
+        } catch (Exception e) {
+            System.err.println("Erreur refresh dashboard : " + e.getMessage());
+        }
+    }
 
-            // Info sur les validations d'inscriptions
-            if (qs.validatedInscriptions > 0) {
-                actions.add(qs.validatedInscriptions + " inscription(s) validée(s)");
-            } else {
-                actions.add("Aucune inscription validée pour le moment");
-            }
+    /** Snapshot courant : recalculé uniquement si la version des données a changé. */
+    private DashboardSnapshot getDashboardSnapshot() {
+        long version = dataManager.getDataVersion();
+        DashboardSnapshot snapshot = dashboardSnapshot;
+        if (snapshot == null || snapshot.version != version) {
+            snapshot = buildDashboardSnapshot(version);
+            dashboardSnapshot = snapshot;
+        }
+        return snapshot;
+    }
 
-            if (!actions.isEmpty()) {
-                view.updateRecentActions(actions.subList(0, Math.min(3, actions.size())));
-            } else {
-                view.updateRecentActions(Collections.emptyList());
-            }
+    private DashboardSnapshot buildDashboardSnapshot(long version) {
+        DashboardStatsProjector stats = dashboardStats;
+
+        DashboardSnapshot snapshot = new DashboardSnapshot();
+        snapshot.version       = version;
+        snapshot.totalStudents = stats.getTotalStudents();
+        snapshot.totalTeachers = stats.getTotalProfessors();
+        snapshot.totalModules  = stats.getTotalModules();
+        snapshot.successRate   = stats.getSuccessRate();
+
+        // -------- Statistiques rapides (compteurs tenus à jour par le projecteur) --------
+        EnhancedViceDeanView.QuickStats qs = new EnhancedViceDeanView.QuickStats();
+        qs.totalInscriptions     = stats.getTotalInscriptions();
+        qs.validatedInscriptions = stats.getValidatedInscriptions();
+        qs.totalModules          = snapshot.totalModules;
+        qs.assignedModules       = stats.getAssignedModules();
+        qs.activeAccounts        = stats.getTotalUsers(); // si tu as un flag "actif", adapte ici
+
+        snapshot.quickStats = qs;
+
+        // -------- Tâches en attente --------
+        snapshot.pendingInscriptions = stats.getPendingInscriptions();
+        snapshot.unassignedModules   = stats.getUnassignedModules();
+
+        // -------- Actions récentes --------
+        List<String> actions = new ArrayList<>();
+
+        // Dernier compte créé (code le plus "grand" -> dernier créé dans nos démos)
+        String[] lastUser = stats.getLastCreatedUser();
+        if (lastUser != null) {
+            actions.add("Compte créé : " + lastUser[0] + " (" + lastUser[1] + ")");
+        }
 
-        } catch (Exception e) {
-            System.err.println("Erreur refresh dashboard : " + e.getMessage());
+        // Dernier module affecté (module avec professeur)
+        String[] lastModule = stats.getLastAssignedModule();
+        if (lastModule != null) {
+            User prof = dataManager.getUser(lastModule[1]);
+            String profName = (prof != null) ? prof.getFullName() : lastModule[1];
+            actions.add("Module " + lastModule[0] + " affecté à " + profName);
         }
+
+        // Info sur les validations d'inscriptions
+        if (qs.validatedInscriptions > 0) {
+            actions.add(qs.validatedInscriptions + " inscription(s) validée(s)");
+        } else {
+            actions.add("Aucune inscription validée pour le moment");
+        }
+
+        snapshot.recentActions = new ArrayList<>(actions.subList(0, Math.min(3, actions.size())));
+
+        return snapshot;
     }
 
-    private double calculateRealStudentAverage(String studentCode, List<Grade> allGrades) {
-        return allGrades.stream()
-                .filter(g -> g.getStudentCode().equals(studentCode))
-                .mapToDouble(Grade::getValue)
-                .average()
-                .orElse(0.0);
+    /** Moyenne pondérée (AveragingEngine), 0 si l'étudiant n'a aucune note. */
+    private double calculateRealStudentAverage(String studentCode) {
+        return averaging.getAverageOrDefault(studentCode, 0.0);
     }
 
     private String getStudentStatus(double avg) {
@@ -1,5 +1,6 @@
 package model.dao;
 
+import java.io.*;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
@@ -11,12 +12,27 @@ import java.util.stream.Collectors;
 public class CacheManager {
     private static CacheManager instance;
     private static final int MAX_CACHE_SIZE = 100;
+    private static final int MAX_NEGATIVE_CACHE_SIZE = 1000;
+    private static final long NEGATIVE_TTL = 30_000; // 30 s
+    private static final String PROFILE_FILE = "data/cache_profile.dat";
+    // Taille du cache hors tas en Mo : désactivé par défaut, activé par ex. avec -Dcache.offheap.mb=32
+    private static final long OFF_HEAP_MB = Long.getLong("cache.offheap.mb", 0);
     
     // Caches pour différents types de données
     private Map<String, CacheEntry<?>> userCache;
     private Map<String, CacheEntry<?>> moduleCache;
     private Map<String, List<?>> queryCache;
     
+    // Cache négatif : codes utilisateurs inexistants -> date d'expiration
+    private Map<String, Long> negativeUserCache;
+    
+    // Fréquence d'accès par clé (profil de préchargement au démarrage)
+    private Map<String, Integer> userAccessCounts;
+    private Map<String, Integer> moduleAccessCounts;
+    
+    // Second niveau optionnel, hors tas, pour les gros textes (rapports)
+    private OffHeapPayloadCache payloadCache;
+    
     // Statistiques de cache
     private long cacheHits = 0;
     private long cacheMisses = 0;
@@ -25,6 +41,20 @@ public class CacheManager {
         this.userCache = new ConcurrentHashMap<>();
         this.moduleCache = new ConcurrentHashMap<>();
         this.queryCache = new ConcurrentHashMap<>();
+        this.negativeUserCache = new ConcurrentHashMap<>();
+        this.userAccessCounts = new ConcurrentHashMap<>();
+        this.moduleAccessCounts = new ConcurrentHashMap<>();
+        this.payloadCache = createPayloadCache();
+    }
+    
+    private static OffHeapPayloadCache createPayloadCache() {
+        if (OFF_HEAP_MB <= 0) return null;
+        try {
+            return new OffHeapPayloadCache(OFF_HEAP_MB * 1024 * 1024);
+        } catch (OutOfMemoryError e) {
+            System.err.println("Off-heap cache disabled: " + e.getMessage());
+            return null;
+        }
     }
     
     public static CacheManager getInstance() {
@@ -74,6 +104,7 @@ public class CacheManager {
      */
     @SuppressWarnings("unchecked")
     public <T> T getCachedUser(String code, Class<T> type) {
+        userAccessCounts.merge(code, 1, Integer::sum);
         CacheEntry<?> entry = userCache.get(code);
         if (entry != null && !entry.isExpired()) {
             cacheHits++;
@@ -84,6 +115,48 @@ public class CacheManager {
         return null;
     }
     
+    /**
+     * Mémorise qu'un code utilisateur n'existe pas (TTL court)
+     */
+    public void cacheMissingUser(String code) {
+        if (code == null) return;
+        if (negativeUserCache.size() >= MAX_NEGATIVE_CACHE_SIZE) {
+            cleanExpiredNegativeEntries();
+            if (negativeUserCache.size() >= MAX_NEGATIVE_CACHE_SIZE) {
+                negativeUserCache.clear();
+            }
+        }
+        negativeUserCache.put(code, System.currentTimeMillis() + NEGATIVE_TTL);
+    }
+    
+    /**
+     * Vérifie si un code est connu comme inexistant (sans toucher aux stats hits/misses)
+     */
+    public boolean isKnownMissingUser(String code) {
+        if (code == null) return false;
+        Long expiry = negativeUserCache.get(code);
+        if (expiry == null) return false;
+        if (expiry < System.currentTimeMillis()) {
+            negativeUserCache.remove(code);
+            return false;
+        }
+        return true;
+    }
+    
+    /**
+     * Retire un code du cache négatif (utilisateur créé)
+     */
+    public void forgetMissingUser(String code) {
+        if (code != null) {
+            negativeUserCache.remove(code);
+        }
+    }
+    
+    private void cleanExpiredNegativeEntries() {
+        long now = System.currentTimeMillis();
+        negativeUserCache.values().removeIf(expiry -> expiry < now);
+    }
+    
     /**
      * Met en cache un module
      */
@@ -99,6 +172,7 @@ public class CacheManager {
      */
     @SuppressWarnings("unchecked")
     public <T> T getCachedModule(String code, Class<T> type) {
+        moduleAccessCounts.merge(code, 1, Integer::sum);
         CacheEntry<?> entry = moduleCache.get(code);
         if (entry != null && !entry.isExpired()) {
             cacheHits++;
@@ -130,6 +204,42 @@ public class CacheManager {
         return null;
     }
     
+    /**
+     * Met en cache hors tas un texte volumineux (no-op si le niveau est désactivé)
+     */
+    public void cachePayload(String key, String payload) {
+        if (payloadCache != null) {
+            payloadCache.put(key, payload);
+        }
+    }
+    
+    /**
+     * Récupère un texte du cache hors tas
+     */
+    public String getCachedPayload(String key) {
+        if (payloadCache == null) return null;
+        String payload = payloadCache.get(key);
+        if (payload != null) {
+            cacheHits++;
+        } else {
+            cacheMisses++;
+        }
+        return payload;
+    }
+    
+    /**
+     * Invalide les textes hors tas dont la clé commence par le préfixe
+     */
+    public void invalidatePayloads(String keyPrefix) {
+        if (payloadCache != null) {
+            payloadCache.removeByPrefix(keyPrefix);
+        }
+    }
+    
+    public boolean isPayloadCacheEnabled() {
+        return payloadCache != null;
+    }
+    
     /**
      * Invalide le cache d'un utilisateur
      */
@@ -181,6 +291,7 @@ public class CacheManager {
     public void cleanExpiredEntries() {
         cleanExpiredFromMap(userCache);
         cleanExpiredFromMap(moduleCache);
+        cleanExpiredNegativeEntries();
     }
     
     private void cleanExpiredFromMap(Map<String, CacheEntry<?>> cache) {
@@ -199,10 +310,77 @@ public class CacheManager {
         userCache.clear();
         moduleCache.clear();
         queryCache.clear();
+        negativeUserCache.clear();
+        if (payloadCache != null) {
+            payloadCache.clear();
+        }
         cacheHits = 0;
         cacheMisses = 0;
     }
     
+    /**
+     * Sauvegarde les clés les plus consultées (profil de préchargement)
+     */
+    public void saveAccessProfile() {
+        if (userAccessCounts.isEmpty() && moduleAccessCounts.isEmpty()) return;
+        
+        AccessProfile profile = new AccessProfile(
+            topKeys(userAccessCounts, MAX_CACHE_SIZE),
+            topKeys(moduleAccessCounts, MAX_CACHE_SIZE)
+        );
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(PROFILE_FILE))) {
+            oos.writeObject(profile);
+        } catch (Exception e) {
+            System.err.println("Error saving cache profile: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Charge le profil sauvegardé (profil vide si absent ou illisible)
+     */
+    public AccessProfile loadAccessProfile() {
+        File file = new File(PROFILE_FILE);
+        if (!file.exists()) return new AccessProfile(new ArrayList<>(), new ArrayList<>());
+        
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
+            return (AccessProfile) ois.readObject();
+        } catch (Exception e) {
+            System.err.println("Error loading cache profile: " + e.getMessage());
+            return new AccessProfile(new ArrayList<>(), new ArrayList<>());
+        }
+    }
+    
+    private List<String> topKeys(Map<String, Integer> counts, int limit) {
+        return counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+            .limit(limit)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+    
+    /**
+     * Profil compact : clés triées par fréquence d'accès décroissante
+     */
+    public static class AccessProfile implements Serializable {
+        private static final long serialVersionUID = 1L;
+        
+        private final ArrayList<String> userCodes;
+        private final ArrayList<String> moduleCodes;
+        
+        public AccessProfile(List<String> userCodes, List<String> moduleCodes) {
+            this.userCodes = new ArrayList<>(userCodes);
+            this.moduleCodes = new ArrayList<>(moduleCodes);
+        }
+        
+        public List<String> getUserCodes() {
+            return userCodes;
+        }
+        
+        public List<String> getModuleCodes() {
+            return moduleCodes;
+        }
+    }
+    
     /**
      * Obtient les statistiques du cache
      */
@@ -212,7 +390,9 @@ public class CacheManager {
             cacheMisses,
             userCache.size(),
             moduleCache.size(),
-            queryCache.size()
+            queryCache.size(),
+            payloadCache != null ? payloadCache.size() : 0,
+            payloadCache != null ? payloadCache.getUsedBytes() : 0
         );
     }
     
@@ -225,13 +405,22 @@ public class CacheManager {
         public final int userCacheSize;
         public final int moduleCacheSize;
         public final int queryCacheSize;
+        public final int payloadCacheSize;
+        public final long offHeapBytes;
         
         public CacheStats(long hits, long misses, int userSize, int moduleSize, int querySize) {
+            this(hits, misses, userSize, moduleSize, querySize, 0, 0);
+        }
+        
+        public CacheStats(long hits, long misses, int userSize, int moduleSize, int querySize,
+                          int payloadSize, long offHeapBytes) {
             this.hits = hits;
             this.misses = misses;
             this.userCacheSize = userSize;
             this.moduleCacheSize = moduleSize;
             this.queryCacheSize = querySize;
+            this.payloadCacheSize = payloadSize;
+            this.offHeapBytes = offHeapBytes;
         }
         
         public double getHitRate() {
@@ -242,8 +431,9 @@ public class CacheManager {
         @Override
         public String toString() {
             return String.format(
-                "Cache Stats: Hits=%d, Misses=%d, Hit Rate=%.2f%%, Users=%d, Modules=%d, Queries=%d",
-                hits, misses, getHitRate(), userCacheSize, moduleCacheSize, queryCacheSize
+                "Cache Stats: Hits=%d, Misses=%d, Hit Rate=%.2f%%, Users=%d, Modules=%d, Queries=%d, Payloads=%d (%d Ko off-heap)",
+                hits, misses, getHitRate(), userCacheSize, moduleCacheSize, queryCacheSize,
+                payloadCacheSize, offHeapBytes / 1024
             );
         }
     }
@@ -2,13 +2,17 @@ package model.dao;
 
 import model.entities.*;
 import model.entities.Module;
+import model.observers.DataChangeListener;
+import model.observers.DataEvent;
 import model.observers.GradeSubject;
+import model.observers.ObserverRegistry;
 import model.observers.Subject;
 import model.validation.ValidationManager;
 
 import java.io.*;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -38,6 +42,18 @@ public class DataManager {
     private CacheManager      cacheManager;
     private ValidationManager validationManager;
 
+    // Filtre de Bloom des codes utilisateurs (rejet rapide des codes inconnus)
+    private volatile UserCodeFilter userCodeFilter;
+
+    // Étudiants inscrits sans note, par module et type de note
+    private final PendingGradeIndex pendingGrades = new PendingGradeIndex();
+
+    // Version des données : incrémentée à chaque mutation réelle (clé des caches dérivés)
+    private final AtomicLong dataVersion = new AtomicLong();
+
+    // Abonnés aux modifications (projections incrémentales : dashboard, classements...)
+    private final ObserverRegistry<DataChangeListener> dataListeners = new ObserverRegistry<>("data");
+
     // Fichiers de persistance
     private static final String USERS_FILE        = "data/users.dat";
     private static final String MODULES_FILE      = "data/modules.dat";
@@ -45,9 +61,14 @@ public class DataManager {
     private static final String ABSENCES_FILE     = "data/absences.dat";
     private static final String INSCRIPTIONS_FILE = "data/inscriptions.dat";
 
+    // Entrées préchargées au démarrage : gardées jusqu'aux premières connexions
+    private static final long WARM_UP_TTL = 3_600_000; // 1 h
+
     private DataManager() {
         initializeData();
         loadData();
+        rebuildUserCodeFilter();
+        pendingGrades.rebuild(inscriptions, grades);
         this.gradeSubject        = new GradeSubject();
         this.notificationManager = NotificationManager.getInstance();
     }
@@ -225,20 +246,44 @@ public class DataManager {
     // UTILISATEURS
     // =========================================================================
     public User getUser(String code) {
+        // Codes inconnus : rejet sans sonder le cache ni le stockage
+        if (!isKnownUserCode(code)) return null;
+
         User cachedUser = cacheManager.getCachedUser(code, User.class);
         if (cachedUser != null) return cachedUser;
 
         User user = users.get(code);
         if (user != null) {
             cacheManager.cacheUser(code, user, 300_000); // 5 min
+        } else {
+            cacheManager.cacheMissingUser(code); // faux positif du filtre
         }
         return user;
     }
 
+    /**
+     * Vérifie (sans toucher au stockage) si un code peut correspondre à un utilisateur.
+     * false = inexistant de façon certaine (filtre de Bloom ou cache négatif).
+     */
+    public boolean isKnownUserCode(String code) {
+        if (code == null) return false;
+        UserCodeFilter filter = userCodeFilter;
+        if (filter != null && !filter.mightContain(code)) return false;
+        return !cacheManager.isKnownMissingUser(code);
+    }
+
+    private void rebuildUserCodeFilter() {
+        userCodeFilter = UserCodeFilter.of(new ArrayList<>(users.keySet()), users.size() * 2);
+    }
+
     public boolean addUser(User user) {
         if (user != null && !users.containsKey(user.getCode())) {
             users.put(user.getCode(), user);
             saveUsers();
+            userCodeFilter.add(user.getCode());
+            cacheManager.forgetMissingUser(user.getCode());
+            markChanged();
+            fireDataEvent(DataEvent.Type.USER_ADDED, user, null);
 
             notificationManager.notifyAccountCreated(
                     user.getCode(),
@@ -252,8 +297,10 @@ public class DataManager {
 
     public boolean updateUser(User user) {
         if (user != null && users.containsKey(user.getCode())) {
-            users.put(user.getCode(), user);
+            User previous = users.put(user.getCode(), user);
             saveUsers();
+            markChanged();
+            fireDataEvent(DataEvent.Type.USER_UPDATED, user, List.of(previous));
 
             notificationManager.notifyAccountModified(
                     user.getCode(),
@@ -289,6 +336,10 @@ public class DataManager {
         }
 
         users.remove(code);
+        pendingGrades.rebuild(inscriptions, grades);
+        markChanged();
+        // Suppression en cascade (notes, inscriptions, affectations) : reconstruction
+        fireDataEvent(DataEvent.Type.RESET, null, null);
 
         saveUsers();
         saveGrades();
@@ -297,6 +348,8 @@ public class DataManager {
         saveModules();
 
         cacheManager.invalidateUser(code);
+        rebuildUserCodeFilter();
+        cacheManager.cacheMissingUser(code);
         return true;
     }
 
@@ -339,10 +392,26 @@ public class DataManager {
                 );
     }
 
+    /**
+     * Étudiants inscrits au module qui n'ont pas encore de note du type donné
+     * (Grade.TYPE_EXAM, TYPE_CC, TYPE_TP, TYPE_TD ; casse ignorée). Vue en lecture seule.
+     */
+    public Set<String> getPendingGrades(String moduleCode, String type) {
+        return pendingGrades.getPending(moduleCode, type);
+    }
+
+    /** Nombre d'étudiants inscrits sans note de ce type, en O(1). */
+    public int getPendingGradeCount(String moduleCode, String type) {
+        return pendingGrades.getPendingCount(moduleCode, type);
+    }
+
     public boolean addInscription(Inscription inscription) {
         if (inscription != null && !inscriptions.contains(inscription)) {
             inscriptions.add(inscription);
+            pendingGrades.inscriptionAdded(inscription);
             saveInscriptions();
+            markChanged();
+            fireDataEvent(DataEvent.Type.INSCRIPTION_ADDED, inscription, null);
 
             if (inscription.isValidated()) {
                 Module module = getModule(inscription.getModuleCode());
@@ -430,6 +499,43 @@ public class DataManager {
         return new ArrayList<>(inscriptions);
     }
 
+    // =========================================================================
+    // PARCOURS SANS COPIE (exports en flux)
+    // =========================================================================
+    // Vues en lecture seule parcourues à la demande : à consommer immédiatement
+    // (même thread que les modifications), sans les conserver.
+    // Notes et inscriptions en List : accès indexé pour les calculs fork/join.
+
+    public List<Grade> grades() {
+        return Collections.unmodifiableList(grades);
+    }
+
+    /** Notes d'un étudiant, filtrées au fil du parcours (aucune liste intermédiaire). */
+    public Iterable<Grade> studentGrades(String studentCode) {
+        return () -> grades.stream()
+                .filter(grade -> grade.getStudentCode().equals(studentCode))
+                .iterator();
+    }
+
+    public List<Inscription> inscriptions() {
+        return Collections.unmodifiableList(inscriptions);
+    }
+
+    public Iterable<Module> modules() {
+        return Collections.unmodifiableCollection(modules.values());
+    }
+
+    public Iterable<Absence> absences() {
+        return Collections.unmodifiableList(absences);
+    }
+
+    public Iterable<Student> students() {
+        return () -> users.values().stream()
+                .filter(u -> u instanceof Student)
+                .map(u -> (Student) u)
+                .iterator();
+    }
+
     // =========================================================================
     // MODULES
     // =========================================================================
@@ -444,11 +550,21 @@ public class DataManager {
         return module;
     }
 
+    /**
+     * Lecture directe, sans passer par le cache : pour les calculs internes (moyennes,
+     * historiques) qui ne doivent pas fausser les statistiques d'accès ni le profil de préchargement.
+     */
+    public Module findModule(String code) {
+        return modules.get(code);
+    }
+
     public boolean addModule(Module module) {
         if (module != null && !modules.containsKey(module.getCode())) {
             modules.put(module.getCode(), module);
             saveModules();
             cacheManager.invalidateModule(module.getCode());
+            markChanged();
+            fireDataEvent(DataEvent.Type.MODULE_ADDED, module, null);
 
             if (module.hasProfessor()) {
                 notificationManager.notifyModuleAssigned(
@@ -492,6 +608,8 @@ public class DataManager {
 
         saveModules();
         cacheManager.invalidateModule(code);
+        markChanged();
+        fireDataEvent(DataEvent.Type.MODULE_UPDATED, existing, null);
 
         if (newProfCode != null && !newProfCode.isEmpty()) {
             System.out.println("[DM] Envoi notif MODULE_ASSIGNED à " + newProfCode);
@@ -512,6 +630,7 @@ public class DataManager {
         if (!modules.containsKey(code)) return false;
 
         modules.remove(code);
+        markChanged();
 
         grades.removeIf(g -> g.getModuleCode().equals(code));
         absences.removeIf(a -> a.getModuleCode().equals(code));
@@ -523,6 +642,9 @@ public class DataManager {
         saveInscriptions();
 
         cacheManager.invalidateModule(code);
+        pendingGrades.rebuild(inscriptions, grades);
+        // Notes, absences et inscriptions du module supprimées avec lui : reconstruction
+        fireDataEvent(DataEvent.Type.RESET, null, null);
         return true;
     }
 
@@ -533,7 +655,10 @@ public class DataManager {
         if (grade == null) return false;
 
         grades.add(grade);
+        pendingGrades.gradeAdded(grade);
         saveGrades();
+        markChanged();
+        fireDataEvent(DataEvent.Type.GRADE_ADDED, grade, null);
 
         if (gradeSubject instanceof GradeSubject) {
             ((GradeSubject) gradeSubject).gradeAdded(
@@ -563,13 +688,19 @@ public class DataManager {
     public boolean updateGrade(Grade grade) {
         if (grade == null) return false;
 
-        grades.removeIf(g ->
-                g.getStudentCode().equals(grade.getStudentCode()) &&
-                        g.getModuleCode().equals(grade.getModuleCode()) &&
-                        g.getType().equals(grade.getType())
-        );
+        List<Grade> replaced = new ArrayList<>(1);
+        grades.removeIf(g -> {
+            boolean same = g.getStudentCode().equals(grade.getStudentCode()) &&
+                    g.getModuleCode().equals(grade.getModuleCode()) &&
+                    g.getType().equals(grade.getType());
+            if (same) replaced.add(g);
+            return same;
+        });
         grades.add(grade);
+        pendingGrades.gradeAdded(grade); // même étudiant, module et type que les notes remplacées
         saveGrades();
+        markChanged();
+        fireDataEvent(DataEvent.Type.GRADE_UPDATED, grade, replaced);
 
         if (gradeSubject instanceof GradeSubject) {
             ((GradeSubject) gradeSubject).gradeModified(
@@ -598,6 +729,8 @@ public class DataManager {
 
         absences.add(absence);
         saveAbsences();
+        markChanged();
+        fireDataEvent(DataEvent.Type.ABSENCE_ADDED, absence, null);
 
         Module module = getModule(absence.getModuleCode());
         notificationManager.notifyAbsenceRecorded(
@@ -613,27 +746,37 @@ public class DataManager {
     public boolean updateAbsence(Absence absence) {
         if (absence == null) return false;
 
-        absences.removeIf(a ->
-                a.getStudentCode().equals(absence.getStudentCode()) &&
-                        a.getModuleCode().equals(absence.getModuleCode()) &&
-                        a.getDate().equals(absence.getDate())
-        );
+        List<Absence> replaced = new ArrayList<>(1);
+        absences.removeIf(a -> {
+            boolean same = a.getStudentCode().equals(absence.getStudentCode()) &&
+                    a.getModuleCode().equals(absence.getModuleCode()) &&
+                    a.getDate().equals(absence.getDate());
+            if (same) replaced.add(a);
+            return same;
+        });
         absences.add(absence);
         saveAbsences();
+        markChanged();
+        fireDataEvent(DataEvent.Type.ABSENCE_UPDATED, absence, replaced);
         return true;
     }
 
     public boolean deleteAbsence(Absence absence) {
         if (absence == null) return false;
 
-        boolean removed = absences.removeIf(a ->
-                a.getStudentCode().equals(absence.getStudentCode()) &&
-                        a.getModuleCode().equals(absence.getModuleCode()) &&
-                        a.getDate().equals(absence.getDate()) &&
-                        a.getSessionType().equals(absence.getSessionType())
-        );
+        List<Absence> deleted = new ArrayList<>(1);
+        boolean removed = absences.removeIf(a -> {
+            boolean same = a.getStudentCode().equals(absence.getStudentCode()) &&
+                    a.getModuleCode().equals(absence.getModuleCode()) &&
+                    a.getDate().equals(absence.getDate()) &&
+                    a.getSessionType().equals(absence.getSessionType());
+            if (same) deleted.add(a);
+            return same;
+        });
         if (removed) {
             saveAbsences();
+            markChanged();
+            fireDataEvent(DataEvent.Type.ABSENCE_DELETED, absence, deleted);
         }
         return removed;
     }
@@ -649,6 +792,26 @@ public class DataManager {
         return notificationManager;
     }
 
+    /**
+     * Abonne un écouteur aux modifications de données.
+     * Les événements sont émis après la mise à jour des collections, dans l'ordre des mutations.
+     */
+    public void addDataChangeListener(DataChangeListener listener) {
+        if (listener != null) {
+            dataListeners.add(listener, listener.getExecutor());
+        }
+    }
+
+    public void removeDataChangeListener(DataChangeListener listener) {
+        dataListeners.remove(listener);
+    }
+
+    private void fireDataEvent(DataEvent.Type type, Object entity, List<?> replaced) {
+        if (dataListeners.isEmpty()) return;
+        DataEvent event = new DataEvent(type, entity, replaced, dataVersion.get());
+        dataListeners.dispatch(l -> l.onDataChanged(event));
+    }
+
     // =========================================================================
     // PERSISTENCE
     // =========================================================================
@@ -749,6 +912,26 @@ public class DataManager {
     // =========================================================================
     // STATISTIQUES & UTILITAIRES
     // =========================================================================
+    /**
+     * Version monotone des données : change après chaque ajout / modification / suppression.
+     * Permet aux écrans de réutiliser leurs calculs tant que rien n'a changé.
+     */
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    private void markChanged() {
+        dataVersion.incrementAndGet();
+    }
+
+    /**
+     * Invalide les calculs mis en cache sans modification des données brutes
+     * (ex: nouvelles règles de pondération : toutes les moyennes changent).
+     */
+    public void markDerivedChanged() {
+        markChanged();
+    }
+
     public int getTotalUsers()        { return users.size(); }
     public int getTotalModules()      { return modules.size(); }
     public int getTotalGrades()       { return grades.size(); }
@@ -758,12 +941,53 @@ public class DataManager {
     public void clearAllData() {
         createSampleData();
         saveAllData();
+        cacheManager.clearAll();
+        rebuildUserCodeFilter();
+        pendingGrades.rebuild(inscriptions, grades);
+        markChanged();
+        fireDataEvent(DataEvent.Type.RESET, null, null);
     }
 
     public void cleanup() {
         saveAllData();
+        cacheManager.saveAccessProfile();
         cacheManager.clearAll();
         notificationManager.cleanOldNotifications();
+        notificationManager.flush();
+    }
+
+    /**
+     * Précharge le cache avec les utilisateurs et modules les plus consultés
+     * lors de la session précédente (profil sauvegardé par cleanup()).
+     * Ne passe pas par getUser/getModule pour ne pas fausser le profil.
+     * Traite une tranche [from, from + count) des codes du profil (utilisateurs puis modules) :
+     * à appeler sur l'EDT, comme les modifications, par petits lots pour ne pas le bloquer.
+     * @return nombre d'entrées préchargées dans la tranche
+     */
+    public int warmUpCache(CacheManager.AccessProfile profile, int from, int count) {
+        List<String> userCodes = profile.getUserCodes();
+        List<String> moduleCodes = profile.getModuleCodes();
+        int end = Math.min(from + count, userCodes.size() + moduleCodes.size());
+        int loaded = 0;
+
+        for (int i = from; i < end; i++) {
+            if (i < userCodes.size()) {
+                String code = userCodes.get(i);
+                User user = users.get(code);
+                if (user != null) {
+                    cacheManager.cacheUser(code, user, WARM_UP_TTL);
+                    loaded++;
+                }
+            } else {
+                String code = moduleCodes.get(i - userCodes.size());
+                Module module = modules.get(code);
+                if (module != null) {
+                    cacheManager.cacheModule(code, module, WARM_UP_TTL);
+                    loaded++;
+                }
+            }
+        }
+        return loaded;
     }
 
     public void printCacheStats() {
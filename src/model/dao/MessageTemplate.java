@@ -0,0 +1,116 @@
+package model.dao;
+
+import model.export.FixedPoint;
+
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Modèle de message précompilé, remplaçant String.format pour les notifications.
+ * - Le modèle est découpé une seule fois en segments (texte fixe / argument)
+ * - Le rendu se fait dans un StringBuilder réutilisé par thread
+ * - Les nombres sont formatés sans Formatter ni objet intermédiaire (voir FixedPoint :
+ *   seuls les cas .5 limites allouent)
+ *
+ * Syntaxe : {0} insère l'argument 0 tel quel, {1:2} insère l'argument 1
+ * (nombre) avec 2 décimales, séparateur décimal de la locale par défaut comme %.2f.
+ */
+public final class MessageTemplate {
+    private static final char DECIMAL_SEPARATOR = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    // literals[i] précède l'argument argIndex[i] ; literals[n] termine le message
+    private final String[] literals;
+    private final int[] argIndex;
+    private final int[] decimals;   // -1 = texte brut
+
+    private MessageTemplate(String[] literals, int[] argIndex, int[] decimals) {
+        this.literals = literals;
+        this.argIndex = argIndex;
+        this.decimals = decimals;
+    }
+
+    /**
+     * Analyse le modèle une fois pour toutes (à garder en constante).
+     * @throws IllegalArgumentException si un emplacement {...} est mal formé
+     */
+    public static MessageTemplate compile(String pattern) {
+        List<String> literals = new ArrayList<>();
+        List<int[]> args = new ArrayList<>();
+
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            char c = pattern.charAt(i);
+            if (c != '{') {
+                literal.append(c);
+                i++;
+                continue;
+            }
+
+            int end = pattern.indexOf('}', i);
+            if (end < 0) {
+                throw new IllegalArgumentException("Accolade non fermée dans le modèle: " + pattern);
+            }
+            String spec = pattern.substring(i + 1, end);
+            int colon = spec.indexOf(':');
+            try {
+                int index = Integer.parseInt(colon < 0 ? spec : spec.substring(0, colon));
+                int dec = colon < 0 ? -1 : Integer.parseInt(spec.substring(colon + 1));
+                if (index < 0 || dec > FixedPoint.MAX_DECIMALS) {
+                    throw new IllegalArgumentException("Emplacement invalide {" + spec + "}");
+                }
+                args.add(new int[]{index, dec});
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Emplacement invalide {" + spec + "}", e);
+            }
+            literals.add(literal.toString());
+            literal.setLength(0);
+            i = end + 1;
+        }
+        literals.add(literal.toString());
+
+        int[] argIndex = new int[args.size()];
+        int[] decimals = new int[args.size()];
+        for (int k = 0; k < args.size(); k++) {
+            argIndex[k] = args.get(k)[0];
+            decimals[k] = args.get(k)[1];
+        }
+        return new MessageTemplate(literals.toArray(new String[0]), argIndex, decimals);
+    }
+
+    /**
+     * Produit le message ; seule la chaîne résultat est allouée
+     * (plus le tableau des arguments et l'éventuel boxing des nombres).
+     */
+    public String render(Object... args) {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+
+        for (int k = 0; k < argIndex.length; k++) {
+            sb.append(literals[k]);
+            Object arg = argIndex[k] < args.length ? args[argIndex[k]] : null;
+            if (decimals[k] >= 0 && arg instanceof Number) {
+                appendFixed(sb, ((Number) arg).doubleValue(), decimals[k]);
+            } else {
+                sb.append(arg);
+            }
+        }
+        sb.append(literals[literals.length - 1]);
+
+        String result = sb.toString();
+        if (sb.capacity() > 4096) {
+            // Ne garde pas un tampon géant après un message exceptionnel
+            BUFFER.set(new StringBuilder(256));
+        }
+        return result;
+    }
+
+    /** Équivalent de %.Nf, avec le séparateur décimal de la locale par défaut. */
+    static void appendFixed(StringBuilder sb, double value, int decimals) {
+        FixedPoint.append(sb, value, decimals, DECIMAL_SEPARATOR);
+    }
+}
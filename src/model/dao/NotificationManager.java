@@ -1,27 +1,116 @@
 package model.dao;
 
+import model.entities.AnnouncementContent;
+import model.entities.AnnouncementNotification;
 import model.entities.Notification;
 import model.observers.NotificationObserver;
+import model.observers.ObserverRegistry;
+import model.observers.UnreadCountListener;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
  * Gestionnaire centralisé des notifications avec pattern Observer.
  * Gère la création, stockage et distribution des notifications.
+ *
+ * Distribution asynchrone :
+ *  - addNotification stocke en mémoire puis dépose la notification dans une file bornée
+ *  - un thread "dispatcher" unique vide la file par lots, écrit le fichier une seule fois
+ *    par lot (BATCH_SIZE notifications ou FLUSH_INTERVAL_MS) puis prévient les observers
+ *  - l'appelant (souvent l'EDT) ne paie ni l'écriture disque ni les observers
+ *  - chaque observer est appelé sur l'exécuteur qu'il déclare (getExecutor) :
+ *    un observer lent (toast Swing) ne retient plus le dispatcher
+ *  - les envois groupés (annonces) passent en un seul élément de file et un seul événement
+ *
+ * Le nombre de non lues est tenu à jour par utilisateur (O(1)) et publié aux
+ * UnreadCountListener : le badge n'a plus à trier ni copier la boîte de réception.
+ *
+ * Un index id -> notification rend markAsRead / deleteNotification en O(1) ; ces
+ * changements d'état sont persistés par une ligne de journal (notifications.journal),
+ * écrite par le dispatcher avec le lot suivant, rejouée au chargement et absorbée par l'instantané complet suivant.
+ *
+ * Regroupement (digest, désactivé par défaut) : une notification de même
+ * (destinataire, type, entité liée) qu'une notification non lue reçue depuis moins de
+ * la fenêtre de regroupement est fusionnée dans celle-ci (saisie de notes d'un module
+ * entier, mises à jour répétées d'un module) au lieu d'être stockée, persistée et
+ * affichée en toast une fois de plus. Le digest garde les messages regroupés et les
+ * observers en sont prévenus par onNotificationUpdated.
  */
 public class NotificationManager {
     private static NotificationManager instance;
     private static final String NOTIFICATIONS_FILE = "data/notifications.dat";
+    private static final String JOURNAL_FILE       = "data/notifications.journal";
+
+    // Journal des changements d'état
+    private static final String JOURNAL_READ       = "READ";
+    private static final String JOURNAL_READ_ALL   = "READ_ALL";
+    private static final String JOURNAL_DELETE     = "DELETE";
+    private static final String JOURNAL_DELETE_ALL = "DELETE_ALL";
+    private static final int    JOURNAL_COMPACT_THRESHOLD = 5_000;
+
+    // Pipeline de distribution
+    private static final int  QUEUE_CAPACITY    = 10_000;
+    private static final int  BATCH_SIZE        = 256;
+    private static final long FLUSH_INTERVAL_MS = 200;
+    private static final long OFFER_TIMEOUT_MS  = 50;
+
+    // Fenêtre de regroupement : désactivé par défaut, activé par ex. avec -Dnotifications.coalesce.ms=120000
+    private static final long DEFAULT_COALESCE_WINDOW_MS = Long.getLong("notifications.coalesce.ms", 0);
+    private static final int  COALESCE_INDEX_PURGE_SIZE  = 4096;
+    private static final int  DIGEST_MAX_LINES           = 10;
 
     private Map<String, List<Notification>> userNotifications;
-    private final List<NotificationObserver> observers;
+    // Index global id -> notification (gardé par lock)
+    private final Map<String, Notification> notificationsById;
+    private int journalEntries = 0;
+    // Lignes de journal en attente d'écriture par le dispatcher (gardé par lock)
+    private final List<String> pendingJournal = new ArrayList<>();
+    private volatile boolean journalPending = false;
+
+    // Dernière notification par clé de regroupement (gardé par lock)
+    private final Map<String, Notification> coalesceIndex;
+    private volatile long coalesceWindowMs = DEFAULT_COALESCE_WINDOW_MS;
+    private final ObserverRegistry<NotificationObserver> observers;
+
+    // Compteurs de non lues par utilisateur (gardés par lock)
+    private final Map<String, Integer> unreadCounts;
+    private final CopyOnWriteArrayList<UnreadCountListener> unreadListeners;
+
+    // Verrou des boîtes de réception (EDT + dispatcher)
+    private final Object lock = new Object();
+    // Sérialise les écritures disque / livraisons (dispatcher, flush(), hook d'arrêt)
+    private final Object flushLock = new Object();
+
+    // Chaque élément = un envoi (1 notification, ou tout un envoi groupé)
+    private final BlockingQueue<List<Notification>> dispatchQueue;
+    private volatile boolean dirty = false;
+    private final Thread dispatcher;
 
     private NotificationManager() {
         this.userNotifications = new HashMap<>();
-        this.observers = new ArrayList<>();
+        this.notificationsById = new HashMap<>();
+        this.coalesceIndex = new HashMap<>();
+        this.observers = new ObserverRegistry<>("notifications");
+        this.unreadCounts = new HashMap<>();
+        this.unreadListeners = new CopyOnWriteArrayList<>();
+        this.dispatchQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
         loadNotifications();
+
+        this.dispatcher = new Thread(this::dispatchLoop, "notification-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "notification-flush"));
     }
 
     public static NotificationManager getInstance() {
@@ -37,8 +126,8 @@ public class NotificationManager {
 
     // OBSERVERS ===============================================================
     public void addObserver(NotificationObserver observer) {
-        if (observer != null && !observers.contains(observer)) {
-            observers.add(observer);
+        if (observer != null) {
+            observers.add(observer, observer.getExecutor());
         }
     }
 
@@ -46,9 +135,47 @@ public class NotificationManager {
         observers.remove(observer);
     }
 
-    private void notifyObservers(Notification notification) {
-        for (NotificationObserver observer : observers) {
-            observer.onNotificationReceived(notification);
+    /** Appels, durées et appels lents (> 50 ms) par observer. */
+    public List<ObserverRegistry.ObserverMetrics> getObserverMetrics() {
+        return observers.getMetrics();
+    }
+
+    public void addUnreadCountListener(UnreadCountListener listener) {
+        if (listener != null) {
+            unreadListeners.addIfAbsent(listener);
+        }
+    }
+
+    public void removeUnreadCountListener(UnreadCountListener listener) {
+        unreadListeners.remove(listener);
+    }
+
+    private void fireUnreadCountChanged(String userCode, int unreadCount) {
+        for (UnreadCountListener listener : unreadListeners) {
+            try {
+                listener.onUnreadCountChanged(userCode, unreadCount);
+            } catch (RuntimeException e) {
+                System.err.println("❌ Erreur listener non lues: " + e.getMessage());
+            }
+        }
+    }
+
+    private void fireUnreadCountsChanged(Map<String, Integer> changed) {
+        if (unreadListeners.isEmpty()) return;
+        for (Map.Entry<String, Integer> e : changed.entrySet()) {
+            fireUnreadCountChanged(e.getKey(), e.getValue());
+        }
+    }
+
+    private void notifyObservers(List<Notification> notifications) {
+        if (notifications.isEmpty() || observers.isEmpty()) return;
+
+        if (notifications.size() == 1) {
+            Notification notification = notifications.get(0);
+            observers.dispatch(observer -> observer.onNotificationReceived(notification));
+        } else {
+            List<Notification> batch = Collections.unmodifiableList(notifications);
+            observers.dispatch(observer -> observer.onNotificationsReceived(batch));
         }
     }
 
@@ -59,8 +186,7 @@ public class NotificationManager {
         Notification notification = new Notification(
                 recipientCode, senderCode, type, title, message, priority
         );
-        addNotification(notification);
-        return notification;
+        return addNotification(notification);
     }
 
     public Notification sendSystemNotification(String recipientCode, String type,
@@ -69,144 +195,236 @@ public class NotificationManager {
                 Notification.PRIORITY_NORMAL);
     }
 
-    public void addNotification(Notification notification) {
+    /**
+     * Notification système complète (priorité + entité liée) construite AVANT l'envoi :
+     * le dispatcher peut la livrer immédiatement, elle ne doit plus être modifiée ensuite.
+     */
+    private Notification sendSystemNotification(String recipientCode, String senderCode,
+                                                String type, String title, String message,
+                                                int priority, String relatedEntityId) {
+        Notification notification = new Notification(
+                recipientCode, senderCode, type, title, message, priority
+        );
+        notification.setRelatedEntityId(relatedEntityId);
+        return addNotification(notification);
+    }
+
+    /**
+     * Stocke la notification, ou la fusionne dans un digest existant.
+     * @return la notification effectivement présente dans la boîte (elle-même ou le digest)
+     */
+    public Notification addNotification(Notification notification) {
         String recipientCode = notification.getRecipientCode();
+        int unread = -1;
+        Notification digest;
 
-        userNotifications.computeIfAbsent(recipientCode, k -> new ArrayList<>());
-        userNotifications.get(recipientCode).add(notification);
+        synchronized (lock) {
+            digest = findDigest(notification);
+            if (digest != null) {
+                mergeIntoDigest(digest, notification);
+                saveNotifications();
+                unread = unreadCounts.getOrDefault(recipientCode, 0);
+            }
+        }
+        if (digest != null) {
+            // Pas de nouvelle toast : boîtes ouvertes et badges se rafraîchissent
+            observers.dispatch(observer -> observer.onNotificationUpdated(digest));
+            fireUnreadCountChanged(recipientCode, unread);
+            return digest;
+        }
 
-        System.out.println("[NM] addNotification: stored for " + recipientCode +
-                ", total=" + userNotifications.get(recipientCode).size());
+        synchronized (lock) {
+            storeNotification(notification);
+            registerForCoalescing(notification);
+            if (!notification.isRead()) {
+                unread = adjustUnread(recipientCode, 1);
+            }
+        }
+        if (unread >= 0) {
+            fireUnreadCountChanged(recipientCode, unread);
+        }
+        enqueue(Collections.singletonList(notification));
+        return notification;
+    }
 
-        saveNotifications();
-        notifyObservers(notification);
+    // REGROUPEMENT ===========================================================
+    /**
+     * Change la fenêtre de regroupement (0 = chaque notification est stockée séparément).
+     */
+    public void setCoalescingWindow(long windowMs) {
+        this.coalesceWindowMs = Math.max(0, windowMs);
+        if (windowMs <= 0) {
+            synchronized (lock) {
+                coalesceIndex.clear();
+            }
+        }
+    }
 
-        System.out.println("📬 Notification envoyée à " + recipientCode + ": " + notification.getTitle());
+    public long getCoalescingWindow() {
+        return coalesceWindowMs;
     }
 
+    private static String coalesceKey(Notification notification) {
+        return notification.getRecipientCode() + '|' + notification.getType()
+                + '|' + notification.getRelatedEntityId();
+    }
 
+    /** Digest candidat : même clé, encore présent, non lu et dans la fenêtre (appelant sous lock). */
+    private Notification findDigest(Notification notification) {
+        long window = coalesceWindowMs;
+        if (window <= 0 || notification.getRelatedEntityId() == null) return null;
+
+        Notification candidate = coalesceIndex.get(coalesceKey(notification));
+        if (candidate == null
+                || candidate.isRead()
+                || notificationsById.get(candidate.getId()) != candidate) {
+            return null;
+        }
+        long age = java.time.Duration.between(candidate.getTimestamp(), notification.getTimestamp()).toMillis();
+        return age <= window ? candidate : null;
+    }
+
+    private void registerForCoalescing(Notification notification) {
+        if (coalesceWindowMs <= 0 || notification.getRelatedEntityId() == null) return;
+
+        if (coalesceIndex.size() >= COALESCE_INDEX_PURGE_SIZE) {
+            java.time.LocalDateTime limit = java.time.LocalDateTime.now().minusNanos(coalesceWindowMs * 1_000_000);
+            coalesceIndex.values().removeIf(n -> n.isRead() || n.getTimestamp().isBefore(limit));
+        }
+        coalesceIndex.put(coalesceKey(notification), notification);
+    }
+
+    /**
+     * Le digest ajoute le message de la nouvelle notification à ceux déjà regroupés
+     * (les DIGEST_MAX_LINES derniers, les plus anciens étant résumés), reprend son
+     * horodatage, compte les occurrences et repasse en fin de boîte (appelant sous lock).
+     */
+    private void mergeIntoDigest(Notification digest, Notification incoming) {
+        List<Notification> notifications = userNotifications.get(digest.getRecipientCode());
+        notifications.remove(digest);
+
+        int occurrences = digest.getOccurrences() + 1;
+        digest.setOccurrences(occurrences);
+        digest.setTitle(incoming.getTitle() + " (" + occurrences + ")");
+        digest.setMessage(digestMessage(digest.getMessage(), incoming.getMessage(), occurrences));
+        digest.setTimestamp(incoming.getTimestamp());
+        digest.setPriority(Math.max(digest.getPriority(), incoming.getPriority()));
+
+        storeNotification(digest);
+    }
+
+    /**
+     * Envoi groupé : toutes les notifications sont construites en une passe,
+     * insérées sous un seul verrou, persistées une fois et livrées en un seul lot.
+     * Le contenu (titre, message...) est stocké une seule fois et partagé :
+     * chaque boîte ne reçoit qu'une référence et son propre état lu/non lu.
+     */
     public void sendBulkNotification(List<String> recipientCodes, String type,
                                      String title, String message, int priority) {
-        if (recipientCodes == null) return;
+        if (recipientCodes == null || recipientCodes.isEmpty()) return;
+
+        AnnouncementContent content = new AnnouncementContent("SYSTEM", type, title, message, priority);
+        List<Notification> batch = new ArrayList<>(recipientCodes.size());
         for (String code : recipientCodes) {
-            sendNotification(code, "SYSTEM", type, title, message, priority);
+            batch.add(new AnnouncementNotification(content, code));
+        }
+        addNotifications(batch);
+    }
+
+    private void addNotifications(List<Notification> batch) {
+        Map<String, Integer> changed = new LinkedHashMap<>();
+        synchronized (lock) {
+            for (Notification notification : batch) {
+                String recipientCode = notification.getRecipientCode();
+                storeNotification(notification);
+                if (!notification.isRead()) {
+                    changed.put(recipientCode, adjustUnread(recipientCode, 1));
+                }
+            }
         }
+        fireUnreadCountsChanged(changed);
+        enqueue(batch);
     }
 
     // HELPERS MÉTIERS ========================================================
+    // Modèles analysés une seule fois (voir MessageTemplate)
+    private static final MessageTemplate GRADE_ADDED_MESSAGE = MessageTemplate.compile(
+            "Une nouvelle note a été saisie par {0} pour le module {1} ({2}). Note: {3:2}/20");
+    private static final MessageTemplate GRADE_MODIFIED_MESSAGE = MessageTemplate.compile(
+            "Votre note pour le module {0} ({1}) a été modifiée. Nouvelle note: {2:2}/20");
+    private static final MessageTemplate ABSENCE_RECORDED_MESSAGE = MessageTemplate.compile(
+            "Une absence a été enregistrée pour le module {0} ({1}) le {2}");
+    private static final MessageTemplate MODULE_ASSIGNED_MESSAGE = MessageTemplate.compile(
+            "Le module {0} ({1}) vous a été assigné par {2}");
+    private static final MessageTemplate ACCOUNT_CREATED_MESSAGE = MessageTemplate.compile(
+            "Votre compte {0} a été créé. Mot de passe temporaire: {1}. " +
+                    "Veuillez le changer lors de votre première connexion.");
+    private static final MessageTemplate ACCOUNT_MODIFIED_MESSAGE = MessageTemplate.compile(
+            "Votre compte a été modifié: {0}. Si vous n'êtes pas à l'origine " +
+                    "de cette modification, contactez l'administration.");
+    private static final MessageTemplate INSCRIPTION_VALIDATED_MESSAGE = MessageTemplate.compile(
+            "Vos inscriptions ont été validées pour les modules suivants: {0}");
+
     public void notifyGradeAdded(String studentCode, String moduleCode,
                                  String moduleName, double grade, String profName) {
         String title = "📝 Nouvelle note disponible";
-        String message = String.format(
-                "Une nouvelle note a été saisie par %s pour le module %s (%s). Note: %.2f/20",
-                profName, moduleName, moduleCode, grade
-        );
+        String message = GRADE_ADDED_MESSAGE.render(profName, moduleName, moduleCode, grade);
 
-        Notification notification = sendSystemNotification(
-                studentCode, Notification.TYPE_GRADE_ADDED, title, message
-        );
-        notification.setRelatedEntityId(moduleCode);
-        notification.setPriority(Notification.PRIORITY_HIGH);
-        saveNotifications();
+        sendSystemNotification(studentCode, "SYSTEM", Notification.TYPE_GRADE_ADDED,
+                title, message, Notification.PRIORITY_HIGH, moduleCode);
     }
 
     public void notifyGradeModified(String studentCode, String moduleCode,
                                     String moduleName, double newGrade) {
         String title = "📝 Note modifiée";
-        String message = String.format(
-                "Votre note pour le module %s (%s) a été modifiée. Nouvelle note: %.2f/20",
-                moduleName, moduleCode, newGrade
-        );
+        String message = GRADE_MODIFIED_MESSAGE.render(moduleName, moduleCode, newGrade);
 
-        Notification notification = sendSystemNotification(
-                studentCode, Notification.TYPE_GRADE_MODIFIED, title, message
-        );
-        notification.setRelatedEntityId(moduleCode);
-        notification.setPriority(Notification.PRIORITY_HIGH);
-        saveNotifications();
+        sendSystemNotification(studentCode, "SYSTEM", Notification.TYPE_GRADE_MODIFIED,
+                title, message, Notification.PRIORITY_HIGH, moduleCode);
     }
 
     public void notifyAbsenceRecorded(String studentCode, String moduleCode,
                                       String moduleName, String date) {
         String title = "📅 Absence enregistrée";
-        String message = String.format(
-                "Une absence a été enregistrée pour le module %s (%s) le %s",
-                moduleName, moduleCode, date
-        );
+        String message = ABSENCE_RECORDED_MESSAGE.render(moduleName, moduleCode, date);
 
-        Notification notification = sendSystemNotification(
-                studentCode, Notification.TYPE_ABSENCE_RECORDED, title, message
-        );
-        notification.setRelatedEntityId(moduleCode);
-        notification.setPriority(Notification.PRIORITY_NORMAL);
-        saveNotifications();
+        sendSystemNotification(studentCode, "SYSTEM", Notification.TYPE_ABSENCE_RECORDED,
+                title, message, Notification.PRIORITY_NORMAL, moduleCode);
     }
 
     public void notifyModuleAssigned(String professorCode, String moduleCode,
-            String moduleName, String viceDeanName) {
-String title = "📚 Nouveau module assigné";
-String message = String.format(
-"Le module %s (%s) vous a été assigné par %s",
-moduleName, moduleCode, viceDeanName
-);
-
-System.out.println("[NM] notifyModuleAssigned: dest=" + professorCode +
-" module=" + moduleCode);
-
-Notification notification = sendSystemNotification(
-professorCode, Notification.TYPE_MODULE_ASSIGNED, title, message
-);
-notification.setSenderCode("VICE_DEAN");
-notification.setRelatedEntityId(moduleCode);
-notification.setPriority(Notification.PRIORITY_HIGH);
-saveNotifications();
-}
+                                     String moduleName, String viceDeanName) {
+        String title = "📚 Nouveau module assigné";
+        String message = MODULE_ASSIGNED_MESSAGE.render(moduleName, moduleCode, viceDeanName);
 
+        sendSystemNotification(professorCode, "VICE_DEAN", Notification.TYPE_MODULE_ASSIGNED,
+                title, message, Notification.PRIORITY_HIGH, moduleCode);
+    }
 
     public void notifyAccountCreated(String userCode, String accountType,
                                      String temporaryPassword) {
         String title = "👤 Compte créé";
-        String message = String.format(
-                "Votre compte %s a été créé. Mot de passe temporaire: %s. " +
-                        "Veuillez le changer lors de votre première connexion.",
-                accountType, temporaryPassword
-        );
+        String message = ACCOUNT_CREATED_MESSAGE.render(accountType, temporaryPassword);
 
-        Notification notification = sendSystemNotification(
-                userCode, Notification.TYPE_ACCOUNT_CREATED, title, message
-        );
-        notification.setPriority(Notification.PRIORITY_URGENT);
-        saveNotifications();
+        sendSystemNotification(userCode, "SYSTEM", Notification.TYPE_ACCOUNT_CREATED,
+                title, message, Notification.PRIORITY_URGENT, null);
     }
 
     public void notifyAccountModified(String userCode, String modificationType) {
         String title = "👤 Compte modifié";
-        String message = String.format(
-                "Votre compte a été modifié: %s. Si vous n'êtes pas à l'origine " +
-                        "de cette modification, contactez l'administration.",
-                modificationType
-        );
+        String message = ACCOUNT_MODIFIED_MESSAGE.render(modificationType);
 
-        Notification notification = sendSystemNotification(
-                userCode, Notification.TYPE_ACCOUNT_MODIFIED, title, message
-        );
-        notification.setPriority(Notification.PRIORITY_HIGH);
-        saveNotifications();
+        sendSystemNotification(userCode, "SYSTEM", Notification.TYPE_ACCOUNT_MODIFIED,
+                title, message, Notification.PRIORITY_HIGH, null);
     }
 
     public void notifyInscriptionValidated(String studentCode, List<String> moduleNames) {
         String title = "✓ Inscription validée";
         String modules = String.join(", ", moduleNames);
-        String message = String.format(
-                "Vos inscriptions ont été validées pour les modules suivants: %s",
-                modules
-        );
+        String message = INSCRIPTION_VALIDATED_MESSAGE.render(modules);
 
-        Notification notification = sendSystemNotification(
-                studentCode, Notification.TYPE_INSCRIPTION_VALIDATED, title, message
-        );
-        notification.setPriority(Notification.PRIORITY_HIGH);
-        saveNotifications();
+        sendSystemNotification(studentCode, "SYSTEM", Notification.TYPE_INSCRIPTION_VALIDATED,
+                title, message, Notification.PRIORITY_HIGH, null);
     }
 
     public void sendSystemAnnouncement(List<String> recipients, String title,
@@ -216,85 +434,430 @@ saveNotifications();
     }
 
     // LECTURE ================================================================
+    /**
+     * Toute la boîte, de la plus récente à la plus ancienne.
+     * Les boîtes sont tenues dans l'ordre chronologique à l'insertion : plus de tri ici.
+     */
     public List<Notification> getUserNotifications(String userCode) {
-        List<Notification> notifications = userNotifications.get(userCode);
-        if (notifications == null) return new ArrayList<>();
-        notifications.sort((n1, n2) -> n2.getTimestamp().compareTo(n1.getTimestamp()));
-        return new ArrayList<>(notifications);
+        return collectNewestFirst(userCode, n -> true);
     }
 
     public List<Notification> getUnreadNotifications(String userCode) {
-        return getUserNotifications(userCode).stream()
-                .filter(n -> !n.isRead())
-                .collect(Collectors.toList());
+        return collectNewestFirst(userCode, n -> !n.isRead());
     }
 
+    /** Nombre de non lues, en O(1) (compteur maintenu à chaque modification). */
     public int getUnreadCount(String userCode) {
-        return getUnreadNotifications(userCode).size();
+        synchronized (lock) {
+            return unreadCounts.getOrDefault(userCode, 0);
+        }
     }
 
     public List<Notification> getRecentNotifications(String userCode) {
-        return getUserNotifications(userCode).stream()
-                .filter(Notification::isRecent)
-                .collect(Collectors.toList());
+        return collectNewestFirst(userCode, Notification::isRecent);
     }
 
     public List<Notification> getNotificationsByType(String userCode, String type) {
-        return getUserNotifications(userCode).stream()
-                .filter(n -> n.getType().equals(type))
-                .collect(Collectors.toList());
+        return collectNewestFirst(userCode, n -> n.getType().equals(type));
     }
 
-    // GESTION (read/delete) ==================================================
-    public void markAsRead(String notificationId) {
-        for (List<Notification> notifications : userNotifications.values()) {
-            for (Notification notification : notifications) {
-                if (notification.getId().equals(notificationId)) {
-                    notification.markAsRead();
-                    saveNotifications();
-                    return;
+    /** Recherche O(1) par l'index des ids (null si inconnue). */
+    public Notification getNotification(String notificationId) {
+        synchronized (lock) {
+            return notificationsById.get(notificationId);
+        }
+    }
+
+    // PAGINATION =============================================================
+    /**
+     * Page de notifications, de la plus récente à la plus ancienne.
+     * @param afterCursor id de la dernière notification de la page précédente (null = début)
+     * @param limit taille de page
+     * Coût : O(log n) pour retrouver le curseur + O(taille de page).
+     */
+    public NotificationPage getNotifications(String userCode, String afterCursor, int limit) {
+        return page(userCode, afterCursor, limit, n -> true);
+    }
+
+    public NotificationPage getUnreadNotifications(String userCode, String afterCursor, int limit) {
+        return page(userCode, afterCursor, limit, n -> !n.isRead());
+    }
+
+    public NotificationPage getNotificationsByType(String userCode, String type,
+                                                   String afterCursor, int limit) {
+        return page(userCode, afterCursor, limit, n -> n.getType().equals(type));
+    }
+
+    private NotificationPage page(String userCode, String afterCursor, int limit,
+                                  Predicate<Notification> filter) {
+        synchronized (lock) {
+            List<Notification> notifications = userNotifications.get(userCode);
+            if (notifications == null || limit <= 0) return NotificationPage.EMPTY;
+
+            int start = notifications.size() - 1;
+            if (afterCursor != null) {
+                start = indexOf(notifications, notificationsById.get(afterCursor)) - 1;
+                if (start < -1) return NotificationPage.EMPTY; // curseur supprimé entre deux pages
+            }
+
+            List<Notification> items = new ArrayList<>(Math.min(limit, start + 1));
+            int i = start;
+            for (; i >= 0 && items.size() < limit; i--) {
+                Notification notification = notifications.get(i);
+                if (filter.test(notification)) {
+                    items.add(notification);
+                }
+            }
+
+            boolean hasMore = false;
+            for (; i >= 0; i--) {
+                if (filter.test(notifications.get(i))) {
+                    hasMore = true;
+                    break;
                 }
             }
+            String nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+            return new NotificationPage(items, nextCursor);
         }
     }
 
+    /** Position d'une notification dans une boîte chronologique (recherche dichotomique). */
+    private static int indexOf(List<Notification> notifications, Notification target) {
+        if (target == null) return -1;
+
+        java.time.LocalDateTime ts = target.getTimestamp();
+        int low = 0;
+        int high = notifications.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (notifications.get(mid).getTimestamp().isBefore(ts)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // Horodatages égaux : parcours local
+        for (int i = low; i < notifications.size() && !notifications.get(i).getTimestamp().isAfter(ts); i++) {
+            if (notifications.get(i) == target) return i;
+        }
+        return -1;
+    }
+
+    private List<Notification> collectNewestFirst(String userCode,
+                                                  Predicate<Notification> filter) {
+        synchronized (lock) {
+            List<Notification> notifications = userNotifications.get(userCode);
+            if (notifications == null) return new ArrayList<>();
+
+            List<Notification> result = new ArrayList<>(notifications.size());
+            for (int i = notifications.size() - 1; i >= 0; i--) {
+                Notification notification = notifications.get(i);
+                if (filter.test(notification)) {
+                    result.add(notification);
+                }
+            }
+            return result;
+        }
+    }
+
+    // GESTION (read/delete) ==================================================
+    /**
+     * Marque une notification comme lue : recherche O(1) par l'index des ids,
+     * persistance par une ligne de journal (pas de réécriture du fichier).
+     */
+    public void markAsRead(String notificationId) {
+        String recipientCode = null;
+        int unread = 0;
+
+        synchronized (lock) {
+            Notification notification = notificationsById.get(notificationId);
+            if (notification == null || notification.isRead()) return;
+
+            notification.markAsRead();
+            recipientCode = notification.getRecipientCode();
+            unread = adjustUnread(recipientCode, -1);
+            appendJournal(JOURNAL_READ, notificationId);
+        }
+        fireUnreadCountChanged(recipientCode, unread);
+    }
+
     public void markAllAsRead(String userCode) {
-        List<Notification> notifications = userNotifications.get(userCode);
-        if (notifications != null) {
-            notifications.forEach(Notification::markAsRead);
-            saveNotifications();
+        boolean changed;
+        synchronized (lock) {
+            changed = unreadCounts.remove(userCode) != null;
+            if (!changed) return;
+
+            List<Notification> notifications = userNotifications.get(userCode);
+            if (notifications != null) {
+                notifications.forEach(Notification::markAsRead);
+            }
+            appendJournal(JOURNAL_READ_ALL, userCode);
         }
+        fireUnreadCountChanged(userCode, 0);
     }
 
     public void deleteNotification(String userCode, String notificationId) {
-        List<Notification> notifications = userNotifications.get(userCode);
-        if (notifications != null) {
-            notifications.removeIf(n -> n.getId().equals(notificationId));
-            saveNotifications();
+        int unread = -1;
+        synchronized (lock) {
+            Notification notification = notificationsById.get(notificationId);
+            if (notification == null || !notification.getRecipientCode().equals(userCode)) return;
+
+            removeNotification(notification);
+            if (!notification.isRead()) {
+                unread = adjustUnread(userCode, -1);
+            }
+            appendJournal(JOURNAL_DELETE, notificationId);
+        }
+        if (unread >= 0) {
+            fireUnreadCountChanged(userCode, unread);
         }
     }
 
     public void deleteAllNotifications(String userCode) {
-        userNotifications.remove(userCode);
-        saveNotifications();
+        boolean changed;
+        synchronized (lock) {
+            List<Notification> removed = userNotifications.remove(userCode);
+            if (removed == null) return;
+
+            for (Notification notification : removed) {
+                notificationsById.remove(notification.getId());
+            }
+            changed = unreadCounts.remove(userCode) != null;
+            appendJournal(JOURNAL_DELETE_ALL, userCode);
+        }
+        if (changed) {
+            fireUnreadCountChanged(userCode, 0);
+        }
     }
 
     public void cleanOldNotifications() {
         java.time.LocalDateTime thirtyDaysAgo = java.time.LocalDateTime.now().minusDays(30);
+        Map<String, Integer> changed = new LinkedHashMap<>();
+        synchronized (lock) {
+            for (Map.Entry<String, List<Notification>> e : userNotifications.entrySet()) {
+                int removedUnread = 0;
+                Iterator<Notification> it = e.getValue().iterator();
+                while (it.hasNext()) {
+                    Notification notification = it.next();
+                    if (notification.getTimestamp().isBefore(thirtyDaysAgo)) {
+                        it.remove();
+                        notificationsById.remove(notification.getId());
+                        if (!notification.isRead()) removedUnread++;
+                    }
+                }
+                if (removedUnread > 0) {
+                    changed.put(e.getKey(), adjustUnread(e.getKey(), -removedUnread));
+                }
+            }
+            saveNotifications();
+        }
+        fireUnreadCountsChanged(changed);
+    }
+
+    private static String digestMessage(String previous, String incoming, int occurrences) {
+        List<String> lines = new ArrayList<>();
+        boolean summarised = false;
+        for (String line : previous.split("\n")) {
+            if (line.startsWith("… ")) {
+                summarised = true; // ancien résumé, recalculé plus bas
+            } else {
+                lines.add(line);
+            }
+        }
+        lines.add(incoming);
+
+        if (!summarised && lines.size() <= DIGEST_MAX_LINES) {
+            return String.join("\n", lines);
+        }
+        List<String> kept = lines.subList(Math.max(0, lines.size() - (DIGEST_MAX_LINES - 1)), lines.size());
+        return "… " + Math.max(1, occurrences - kept.size()) + " notification(s) plus ancienne(s)\n"
+                + String.join("\n", kept);
+    }
+
+    // INDEX DES IDS ==========================================================
+    /**
+     * Insère dans la boîte du destinataire (ordre chronologique) et dans l'index
+     * (appelant sous lock). Cas courant : ajout en fin ; une notification horodatée
+     * juste avant une autre créée en parallèle est remontée de quelques positions.
+     */
+    private void storeNotification(Notification notification) {
+        List<Notification> notifications =
+                userNotifications.computeIfAbsent(notification.getRecipientCode(), k -> new ArrayList<>());
+        int pos = notifications.size();
+        while (pos > 0 && notifications.get(pos - 1).getTimestamp().isAfter(notification.getTimestamp())) {
+            pos--;
+        }
+        notifications.add(pos, notification);
+        notificationsById.put(notification.getId(), notification);
+    }
+
+    /** Retire de la boîte du destinataire et de l'index (appelant sous lock). */
+    private void removeNotification(Notification notification) {
+        notificationsById.remove(notification.getId());
+        List<Notification> notifications = userNotifications.get(notification.getRecipientCode());
+        if (notifications != null) {
+            notifications.remove(notification);
+        }
+    }
+
+    /** Remet chaque boîte dans l'ordre chronologique (fichiers écrits par les versions précédentes). */
+    private void sortInboxes() {
         for (List<Notification> notifications : userNotifications.values()) {
-            notifications.removeIf(n -> n.getTimestamp().isBefore(thirtyDaysAgo));
+            notifications.sort(Comparator.comparing(Notification::getTimestamp));
         }
-        saveNotifications();
+    }
+
+    private void rebuildIdIndex() {
+        synchronized (lock) {
+            notificationsById.clear();
+            for (List<Notification> notifications : userNotifications.values()) {
+                for (Notification notification : notifications) {
+                    notificationsById.put(notification.getId(), notification);
+                }
+            }
+        }
+    }
+
+    // COMPTEURS NON LUES =====================================================
+    /** Ajuste le compteur d'un utilisateur (appelant sous lock) et renvoie la nouvelle valeur. */
+    private int adjustUnread(String userCode, int delta) {
+        int count = Math.max(0, unreadCounts.getOrDefault(userCode, 0) + delta);
+        if (count == 0) {
+            unreadCounts.remove(userCode);
+        } else {
+            unreadCounts.put(userCode, count);
+        }
+        return count;
+    }
+
+    /** Recalcule tous les compteurs à partir des boîtes (après chargement). */
+    private void rebuildUnreadCounts() {
+        synchronized (lock) {
+            unreadCounts.clear();
+            for (Map.Entry<String, List<Notification>> e : userNotifications.entrySet()) {
+                int count = 0;
+                for (Notification notification : e.getValue()) {
+                    if (!notification.isRead()) count++;
+                }
+                if (count > 0) {
+                    unreadCounts.put(e.getKey(), count);
+                }
+            }
+        }
+    }
+
+    // DISTRIBUTION ASYNCHRONE ================================================
+    /**
+     * Dépose un envoi dans la file du dispatcher.
+     * File pleine (rafale extrême) : livraison synchrone par l'appelant plutôt que perte.
+     */
+    private void enqueue(List<Notification> notifications) {
+        try {
+            if (dispatchQueue.offer(notifications, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        deliver(notifications);
+    }
+
+    private void dispatchLoop() {
+        List<Notification> batch = new ArrayList<>(BATCH_SIZE);
+        List<List<Notification>> drained = new ArrayList<>();
+        long batchStart = 0;
+
+        while (true) {
+            try {
+                long timeout = batch.isEmpty()
+                        ? FLUSH_INTERVAL_MS
+                        : Math.max(0, FLUSH_INTERVAL_MS - (System.currentTimeMillis() - batchStart));
+
+                List<Notification> next = dispatchQueue.poll(timeout, TimeUnit.MILLISECONDS);
+                if (next != null) {
+                    if (batch.isEmpty()) batchStart = System.currentTimeMillis();
+                    batch.addAll(next);
+                    while (batch.size() < BATCH_SIZE && dispatchQueue.drainTo(drained, 1) > 0) {
+                        batch.addAll(drained.get(0));
+                        drained.clear();
+                    }
+                }
+
+                boolean full    = batch.size() >= BATCH_SIZE;
+                boolean expired = !batch.isEmpty()
+                        && System.currentTimeMillis() - batchStart >= FLUSH_INTERVAL_MS;
+                if (full || expired || (batch.isEmpty() && (dirty || journalPending))) {
+                    deliver(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                deliver(batch);
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("❌ Erreur dispatcher notifications: " + e.getMessage());
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Une écriture disque pour tout le lot (l'instantané absorbe le journal en attente,
+     * sinon seules les lignes de journal sont ajoutées), puis un seul événement pour les observers.
+     */
+    private void deliver(List<Notification> batch) {
+        synchronized (flushLock) {
+            if (!batch.isEmpty() || dirty) {
+                dirty = false;
+                writeNotifications();
+            } else if (journalPending) {
+                writePendingJournal();
+            }
+            notifyObservers(new ArrayList<>(batch));
+        }
+    }
+
+    /**
+     * Vide la file et écrit immédiatement l'état courant (fermeture de l'application).
+     */
+    public void flush() {
+        List<List<Notification>> pending = new ArrayList<>();
+        dispatchQueue.drainTo(pending);
+
+        List<Notification> batch = new ArrayList<>();
+        pending.forEach(batch::addAll);
+        deliver(batch);
     }
 
     // PERSISTENCE ============================================================
+    /** Demande une écriture : effectuée par le dispatcher sous FLUSH_INTERVAL_MS. */
     private void saveNotifications() {
+        dirty = true;
+    }
+
+    /**
+     * Écrit l'instantané complet. Le journal courant est mis de côté sous le même
+     * verrou que la copie (il ne contient que des changements déjà dans l'instantané)
+     * et supprimé une fois l'écriture réussie.
+     */
+    private void writeNotifications() {
+        Map<String, List<Notification>> snapshot = new HashMap<>();
+        synchronized (lock) {
+            for (Map.Entry<String, List<Notification>> e : userNotifications.entrySet()) {
+                snapshot.put(e.getKey(), new ArrayList<>(e.getValue()));
+            }
+            // Changements en attente déjà présents dans l'instantané
+            pendingJournal.clear();
+            journalPending = false;
+            rotateJournal();
+        }
+
         try {
             new File("data").mkdirs();
             try (ObjectOutputStream oos = new ObjectOutputStream(
-                    new FileOutputStream(NOTIFICATIONS_FILE))) {
-                oos.writeObject(userNotifications);
+                    new BufferedOutputStream(new FileOutputStream(NOTIFICATIONS_FILE)))) {
+                oos.writeObject(snapshot);
             }
+            new File(JOURNAL_FILE + ".old").delete();
         } catch (IOException e) {
             System.err.println("❌ Erreur sauvegarde notifications: " + e.getMessage());
         }
@@ -303,22 +866,146 @@ saveNotifications();
     @SuppressWarnings("unchecked")
     private void loadNotifications() {
         File file = new File(NOTIFICATIONS_FILE);
-        if (!file.exists()) return;
+        if (file.exists()) {
+            try (ObjectInputStream ois = new ObjectInputStream(
+                    new FileInputStream(NOTIFICATIONS_FILE))) {
+                userNotifications = (Map<String, List<Notification>>) ois.readObject();
+                sortInboxes();
+            } catch (IOException | ClassNotFoundException e) {
+                System.err.println("❌ Erreur chargement notifications: " + e.getMessage());
+            }
+        }
+
+        rebuildIdIndex();
+        int replayed = replayJournal(JOURNAL_FILE + ".old") + replayJournal(JOURNAL_FILE);
+        rebuildUnreadCounts();
 
-        try (ObjectInputStream ois = new ObjectInputStream(
-                new FileInputStream(NOTIFICATIONS_FILE))) {
-            userNotifications = (Map<String, List<Notification>>) ois.readObject();
+        if (replayed > 0) {
+            // Intègre le journal rejoué dans un nouvel instantané
+            saveNotifications();
+        }
+        if (file.exists()) {
             System.out.println("✅ " + getTotalNotificationsCount() + " notifications chargées");
-        } catch (IOException | ClassNotFoundException e) {
-            System.err.println("❌ Erreur chargement notifications: " + e.getMessage());
+        }
+    }
+
+    // JOURNAL ================================================================
+    /**
+     * Met un changement d'état en attente de journalisation (appelant sous lock) :
+     * aucune E/S ici, le dispatcher écrit les lignes en attente avec le lot suivant.
+     * Si le journal devient long, un instantané complet est demandé.
+     */
+    private void appendJournal(String op, String key) {
+        pendingJournal.add(op + '\t' + key + '\n');
+        journalPending = true;
+        if (++journalEntries >= JOURNAL_COMPACT_THRESHOLD) {
+            saveNotifications();
+        }
+    }
+
+    /**
+     * Ajoute au fichier les lignes en attente (dispatcher, sous flushLock).
+     * En cas d'échec, un instantané complet est demandé : l'état est en mémoire.
+     */
+    private void writePendingJournal() {
+        List<String> lines;
+        synchronized (lock) {
+            lines = new ArrayList<>(pendingJournal);
+            pendingJournal.clear();
+            journalPending = false;
+        }
+        if (lines.isEmpty()) return;
+
+        try {
+            new File("data").mkdirs();
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(JOURNAL_FILE, true), StandardCharsets.UTF_8))) {
+                for (String line : lines) {
+                    writer.write(line);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Erreur journal notifications: " + e.getMessage());
+            saveNotifications();
+        }
+    }
+
+    /** Met le journal courant de côté avant un instantané (appelant sous lock). */
+    private void rotateJournal() {
+        File journal = new File(JOURNAL_FILE);
+        journalEntries = 0;
+        if (!journal.exists()) return;
+
+        File old = new File(JOURNAL_FILE + ".old");
+        try {
+            if (old.exists()) {
+                // Instantané précédent non abouti : on conserve les deux journaux
+                Files.write(old.toPath(), Files.readAllBytes(journal.toPath()), StandardOpenOption.APPEND);
+                Files.delete(journal.toPath());
+            } else {
+                Files.move(journal.toPath(), old.toPath());
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Erreur rotation journal notifications: " + e.getMessage());
+        }
+    }
+
+    /** Rejoue un journal sur les boîtes chargées (opérations idempotentes). */
+    private int replayJournal(String path) {
+        File journal = new File(path);
+        if (!journal.exists()) return 0;
+
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(journal.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            synchronized (lock) {
+                while ((line = reader.readLine()) != null) {
+                    int tab = line.indexOf('\t');
+                    if (tab < 0) continue;
+                    applyJournalEntry(line.substring(0, tab), line.substring(tab + 1));
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Erreur lecture journal notifications: " + e.getMessage());
+        }
+        return count;
+    }
+
+    private void applyJournalEntry(String op, String key) {
+        switch (op) {
+            case JOURNAL_READ: {
+                Notification notification = notificationsById.get(key);
+                if (notification != null) notification.markAsRead();
+                break;
+            }
+            case JOURNAL_READ_ALL: {
+                List<Notification> notifications = userNotifications.get(key);
+                if (notifications != null) notifications.forEach(Notification::markAsRead);
+                break;
+            }
+            case JOURNAL_DELETE: {
+                Notification notification = notificationsById.get(key);
+                if (notification != null) removeNotification(notification);
+                break;
+            }
+            case JOURNAL_DELETE_ALL: {
+                List<Notification> removed = userNotifications.remove(key);
+                if (removed != null) removed.forEach(n -> notificationsById.remove(n.getId()));
+                break;
+            }
+            default:
+                break;
         }
     }
 
     // STATISTIQUES ===========================================================
     public int getTotalNotificationsCount() {
-        return userNotifications.values().stream()
-                .mapToInt(List::size)
-                .sum();
+        synchronized (lock) {
+            return userNotifications.values().stream()
+                    .mapToInt(List::size)
+                    .sum();
+        }
     }
 
     public NotificationStats getStats(String userCode) {
@@ -348,4 +1035,23 @@ saveNotifications();
                     total, unread, recent);
         }
     }
+
+    /**
+     * Page de résultats : notifications (plus récentes d'abord) et curseur suivant.
+     */
+    public static class NotificationPage {
+        static final NotificationPage EMPTY = new NotificationPage(Collections.emptyList(), null);
+
+        public final List<Notification> items;
+        public final String nextCursor;      // null s'il n'y a plus rien après
+
+        public NotificationPage(List<Notification> items, String nextCursor) {
+            this.items = Collections.unmodifiableList(items);
+            this.nextCursor = nextCursor;
+        }
+
+        public boolean hasMore() {
+            return nextCursor != null;
+        }
+    }
 }
@@ -0,0 +1,153 @@
+package model.dao;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache de second niveau hors tas (direct ByteBuffer) pour les gros textes
+ * rarement relus (rapports générés, exports).
+ * - Une seule arène allouée au démarrage, découpée en blocs de taille fixe
+ * - Chaque entrée occupe une liste de blocs (pas de fragmentation)
+ * - Éviction LRU quand la capacité est atteinte
+ * Le tas ne garde que les clés et les index de blocs.
+ */
+public class OffHeapPayloadCache {
+    private static final int BLOCK_SIZE = 4096;
+
+    private final ByteBuffer arena;
+    private final int blockCount;
+    private final int[] freeBlocks;
+    private int freeTop;
+
+    // Ordre d'accès -> première entrée = la moins récemment utilisée
+    private final LinkedHashMap<String, Slot> slots;
+
+    private long evictions = 0;
+
+    private static class Slot {
+        private final int[] blocks;
+        private final int length;
+
+        Slot(int[] blocks, int length) {
+            this.blocks = blocks;
+            this.length = length;
+        }
+    }
+
+    public OffHeapPayloadCache(long capacityBytes) {
+        this.blockCount = (int) Math.max(1, Math.min(Integer.MAX_VALUE / BLOCK_SIZE, capacityBytes / BLOCK_SIZE));
+        this.arena = ByteBuffer.allocateDirect(blockCount * BLOCK_SIZE);
+        this.freeBlocks = new int[blockCount];
+        this.slots = new LinkedHashMap<>(16, 0.75f, true);
+        resetFreeList();
+    }
+
+    /**
+     * Stocke un texte hors tas.
+     * @return false si le texte dépasse la capacité totale du cache
+     */
+    public synchronized boolean put(String key, String payload) {
+        if (key == null || payload == null) return false;
+
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        int needed = Math.max(1, (bytes.length + BLOCK_SIZE - 1) / BLOCK_SIZE);
+        if (needed > blockCount) return false;
+
+        release(slots.remove(key));
+        while (freeTop < needed) {
+            evictEldest();
+        }
+
+        int[] blocks = new int[needed];
+        for (int i = 0; i < needed; i++) {
+            int block = freeBlocks[--freeTop];
+            blocks[i] = block;
+            int offset = i * BLOCK_SIZE;
+            int len = Math.min(BLOCK_SIZE, bytes.length - offset);
+            if (len > 0) {
+                arena.put(block * BLOCK_SIZE, bytes, offset, len);
+            }
+        }
+        slots.put(key, new Slot(blocks, bytes.length));
+        return true;
+    }
+
+    /**
+     * @return le texte stocké, ou null si absent (jamais stocké ou évincé)
+     */
+    public synchronized String get(String key) {
+        Slot slot = slots.get(key);
+        if (slot == null) return null;
+
+        byte[] bytes = new byte[slot.length];
+        for (int i = 0; i < slot.blocks.length; i++) {
+            int offset = i * BLOCK_SIZE;
+            int len = Math.min(BLOCK_SIZE, slot.length - offset);
+            if (len > 0) {
+                arena.get(slot.blocks[i] * BLOCK_SIZE, bytes, offset, len);
+            }
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public synchronized void remove(String key) {
+        release(slots.remove(key));
+    }
+
+    public synchronized void removeByPrefix(String prefix) {
+        Iterator<Map.Entry<String, Slot>> it = slots.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Slot> entry = it.next();
+            if (entry.getKey().startsWith(prefix)) {
+                release(entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        slots.clear();
+        resetFreeList();
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    public synchronized long getUsedBytes() {
+        return (long) (blockCount - freeTop) * BLOCK_SIZE;
+    }
+
+    public long getCapacityBytes() {
+        return (long) blockCount * BLOCK_SIZE;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    private void evictEldest() {
+        Iterator<Map.Entry<String, Slot>> it = slots.entrySet().iterator();
+        if (!it.hasNext()) return;
+        release(it.next().getValue());
+        it.remove();
+        evictions++;
+    }
+
+    private void release(Slot slot) {
+        if (slot == null) return;
+        for (int block : slot.blocks) {
+            freeBlocks[freeTop++] = block;
+        }
+    }
+
+    private void resetFreeList() {
+        for (int i = 0; i < blockCount; i++) {
+            freeBlocks[i] = blockCount - 1 - i;
+        }
+        freeTop = blockCount;
+    }
+}
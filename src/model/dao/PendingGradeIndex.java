@@ -0,0 +1,98 @@
+package model.dao;
+
+import model.entities.Grade;
+import model.entities.Inscription;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index des notes manquantes : pour chaque module et chaque type de note
+ * (Examen, CC, TP, TD), les étudiants inscrits qui n'ont pas encore cette note.
+ * - Mis à jour à chaque inscription / note (DataManager)
+ * - Reconstruit après un chargement ou une suppression en cascade (pas de retrait de note)
+ * Non synchronisé : modifié sous le même thread que les collections de DataManager.
+ */
+public class PendingGradeIndex {
+    private static final String[] TYPES = {
+            Grade.TYPE_EXAM, Grade.TYPE_CC, Grade.TYPE_TP, Grade.TYPE_TD
+    };
+
+    // module -> étudiants inscrits
+    private final Map<String, Set<String>> enrolled = new HashMap<>();
+    // module -> type -> étudiants ayant au moins une note de ce type
+    private final Map<String, Map<String, Set<String>>> graded = new HashMap<>();
+    // module -> type -> étudiants inscrits sans note de ce type
+    private final Map<String, Map<String, Set<String>>> pending = new HashMap<>();
+
+    public void rebuild(Iterable<Inscription> inscriptions, Iterable<Grade> grades) {
+        enrolled.clear();
+        graded.clear();
+        pending.clear();
+        for (Grade g : grades) {
+            gradeAdded(g);
+        }
+        for (Inscription i : inscriptions) {
+            inscriptionAdded(i);
+        }
+    }
+
+    public void inscriptionAdded(Inscription inscription) {
+        String moduleCode = inscription.getModuleCode();
+        String studentCode = inscription.getStudentCode();
+        if (!enrolled.computeIfAbsent(moduleCode, k -> new HashSet<>()).add(studentCode)) {
+            return; // déjà inscrit (autre année / semestre)
+        }
+        Map<String, Set<String>> gradedByType = graded.getOrDefault(moduleCode, Collections.emptyMap());
+        Map<String, Set<String>> pendingByType = pending.computeIfAbsent(moduleCode, k -> new HashMap<>());
+        for (String type : TYPES) {
+            if (!gradedByType.getOrDefault(type, Collections.emptySet()).contains(studentCode)) {
+                pendingByType.computeIfAbsent(type, k -> new HashSet<>()).add(studentCode);
+            }
+        }
+    }
+
+    public void gradeAdded(Grade grade) {
+        String type = canonicalType(grade.getType());
+        if (type == null) return;
+        String moduleCode = grade.getModuleCode();
+        graded.computeIfAbsent(moduleCode, k -> new HashMap<>())
+                .computeIfAbsent(type, k -> new HashSet<>())
+                .add(grade.getStudentCode());
+
+        Map<String, Set<String>> pendingByType = pending.get(moduleCode);
+        Set<String> students = pendingByType != null ? pendingByType.get(type) : null;
+        if (students != null) {
+            students.remove(grade.getStudentCode());
+        }
+    }
+
+    /** Étudiants inscrits au module sans note du type donné (vue en lecture seule). */
+    public Set<String> getPending(String moduleCode, String type) {
+        Set<String> students = pendingSet(moduleCode, type);
+        return students != null ? Collections.unmodifiableSet(students) : Collections.emptySet();
+    }
+
+    public int getPendingCount(String moduleCode, String type) {
+        Set<String> students = pendingSet(moduleCode, type);
+        return students != null ? students.size() : 0;
+    }
+
+    private Set<String> pendingSet(String moduleCode, String type) {
+        Map<String, Set<String>> pendingByType = pending.get(moduleCode);
+        String canonical = canonicalType(type);
+        return (pendingByType != null && canonical != null) ? pendingByType.get(canonical) : null;
+    }
+
+    /** Type de note normalisé (insensible à la casse), null si le type n'est pas suivi. */
+    private static String canonicalType(String type) {
+        if (type == null) return null;
+        for (String t : TYPES) {
+            if (t.equalsIgnoreCase(type)) return t;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,93 @@
+package model.dao;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache des rapports calculés, tenus par références "soft".
+ * - Une entrée par propriétaire (ex: code professeur), valable pour une version des données
+ * - Le GC peut libérer les rapports sous pression mémoire : ils sont alors recalculés
+ * Implémente le pattern Singleton.
+ */
+public class ReportCache {
+    private static ReportCache instance;
+
+    private final Map<String, ReportRef> reports;
+    private final ReferenceQueue<Object> clearedRefs;
+
+    private ReportCache() {
+        this.reports = new ConcurrentHashMap<>();
+        this.clearedRefs = new ReferenceQueue<>();
+    }
+
+    public static ReportCache getInstance() {
+        if (instance == null) {
+            synchronized (ReportCache.class) {
+                if (instance == null) {
+                    instance = new ReportCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    // Référence soft mémorisant sa clé et la version des données du rapport
+    private static class ReportRef extends SoftReference<Object> {
+        private final String ownerKey;
+        private final long version;
+
+        ReportRef(String ownerKey, long version, Object report, ReferenceQueue<Object> queue) {
+            super(report, queue);
+            this.ownerKey = ownerKey;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Récupère le rapport d'un propriétaire s'il a été calculé pour cette version
+     * et n'a pas été libéré par le GC.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String ownerKey, long version, Class<T> type) {
+        purgeCleared();
+        ReportRef ref = reports.get(ownerKey);
+        if (ref == null || ref.version != version) return null;
+
+        Object report = ref.get();
+        return type.isInstance(report) ? (T) report : null;
+    }
+
+    /**
+     * Mémorise le rapport (remplace celui d'une version précédente).
+     */
+    public void put(String ownerKey, long version, Object report) {
+        purgeCleared();
+        reports.put(ownerKey, new ReportRef(ownerKey, version, report, clearedRefs));
+    }
+
+    public void invalidate(String ownerKey) {
+        reports.remove(ownerKey);
+    }
+
+    public void clear() {
+        reports.clear();
+        purgeCleared();
+    }
+
+    public int size() {
+        purgeCleared();
+        return reports.size();
+    }
+
+    /** Retire les entrées dont le rapport a été libéré par le GC. */
+    private void purgeCleared() {
+        Reference<?> ref;
+        while ((ref = clearedRefs.poll()) != null) {
+            ReportRef cleared = (ReportRef) ref;
+            reports.remove(cleared.ownerKey, cleared);
+        }
+    }
+}
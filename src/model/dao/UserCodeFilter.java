@@ -0,0 +1,72 @@
+package model.dao;
+
+/**
+ * Filtre de Bloom sur les codes utilisateurs connus.
+ * - Répond "absent" de façon certaine, "présent" de façon probable
+ * - Sert à rejeter les codes inconnus (écran de login) sans sonder le stockage
+ * - Pas de suppression : DataManager reconstruit le filtre après un deleteUser
+ */
+public class UserCodeFilter {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int    MIN_CAPACITY        = 1024;
+
+    private final long[] bits;
+    private final int    bitCount;
+    private final int    hashCount;
+
+    public UserCodeFilter(int expectedCodes) {
+        int n = Math.max(MIN_CAPACITY, expectedCodes);
+        // m = -n ln(p) / (ln 2)^2 ; k = m/n ln 2
+        int m = (int) Math.ceil(-n * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+        this.bitCount  = ((m + 63) / 64) * 64;
+        this.bits      = new long[bitCount / 64];
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * Construit un filtre contenant tous les codes fournis.
+     */
+    public static UserCodeFilter of(Iterable<String> codes, int expectedCodes) {
+        UserCodeFilter filter = new UserCodeFilter(expectedCodes);
+        for (String code : codes) {
+            filter.add(code);
+        }
+        return filter;
+    }
+
+    public synchronized void add(String code) {
+        if (code == null) return;
+        long h1 = mix(code.hashCode());
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            int idx = (int) Long.remainderUnsigned(h1 + i * h2, bitCount);
+            bits[idx >>> 6] |= 1L << (idx & 63);
+        }
+    }
+
+    /**
+     * @return false si le code n'a jamais été ajouté (certain), true sinon (probable)
+     */
+    public synchronized boolean mightContain(String code) {
+        if (code == null) return false;
+        long h1 = mix(code.hashCode());
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            int idx = (int) Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits[idx >>> 6] & (1L << (idx & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Finaliseur de MurmurHash3 (fmix64) pour disperser String.hashCode(). */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE1A85A53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,63 @@
+// model/entities/AnnouncementContent.java
+package model.entities;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Contenu d'une annonce diffusée à plusieurs destinataires.
+ * Stocké une seule fois et référencé par chaque AnnouncementNotification :
+ * titre, message et métadonnées ne sont pas dupliqués par destinataire.
+ * Immuable.
+ */
+public class AnnouncementContent implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+    private final String senderCode;
+    private final String type;
+    private final String title;
+    private final String message;
+    private final LocalDateTime timestamp;
+    private final int priority;
+
+    public AnnouncementContent(String senderCode, String type, String title,
+                               String message, int priority) {
+        this.id = UUID.randomUUID().toString();
+        this.senderCode = senderCode;
+        this.type = type;
+        this.title = title;
+        this.message = message;
+        this.timestamp = LocalDateTime.now();
+        this.priority = priority;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getSenderCode() {
+        return senderCode;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+}
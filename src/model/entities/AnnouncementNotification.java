@@ -0,0 +1,133 @@
+// model/entities/AnnouncementNotification.java
+package model.entities;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrée de boîte de réception pour une annonce diffusée.
+ * Ne porte que le destinataire et l'état lu/non lu ; tout le reste est lu
+ * dans l'AnnouncementContent partagé.
+ * L'identifiant est dérivé : "<id du contenu>@<destinataire>".
+ * Les setters hérités restent utilisables : un champ modifié est copié dans
+ * l'instance (copie sur écriture), le contenu partagé n'est jamais touché.
+ */
+public class AnnouncementNotification extends Notification {
+    private static final long serialVersionUID = 1L;
+
+    // Champs modifiés localement (bits de ownFields)
+    private static final int OWN_ID        = 1;
+    private static final int OWN_SENDER    = 1 << 1;
+    private static final int OWN_TYPE      = 1 << 2;
+    private static final int OWN_TITLE     = 1 << 3;
+    private static final int OWN_MESSAGE   = 1 << 4;
+    private static final int OWN_TIMESTAMP = 1 << 5;
+    private static final int OWN_PRIORITY  = 1 << 6;
+
+    private final AnnouncementContent content;
+    private int ownFields;
+    private transient String id;
+
+    public AnnouncementNotification(AnnouncementContent content, String recipientCode) {
+        super(recipientCode);
+        this.content = content;
+    }
+
+    public AnnouncementContent getContent() {
+        return content;
+    }
+
+    private boolean owns(int field) {
+        return (ownFields & field) != 0;
+    }
+
+    // Champs partagés : lus dans le contenu, sauf s'ils ont été modifiés ======
+
+    @Override
+    public String getId() {
+        if (owns(OWN_ID)) return super.getId();
+        if (id == null) {
+            id = content.getId() + "@" + getRecipientCode();
+        }
+        return id;
+    }
+
+    @Override
+    public String getSenderCode() {
+        return owns(OWN_SENDER) ? super.getSenderCode() : content.getSenderCode();
+    }
+
+    @Override
+    public String getType() {
+        return owns(OWN_TYPE) ? super.getType() : content.getType();
+    }
+
+    @Override
+    public String getTitle() {
+        return owns(OWN_TITLE) ? super.getTitle() : content.getTitle();
+    }
+
+    @Override
+    public String getMessage() {
+        return owns(OWN_MESSAGE) ? super.getMessage() : content.getMessage();
+    }
+
+    @Override
+    public LocalDateTime getTimestamp() {
+        return owns(OWN_TIMESTAMP) ? super.getTimestamp() : content.getTimestamp();
+    }
+
+    @Override
+    public int getPriority() {
+        return owns(OWN_PRIORITY) ? super.getPriority() : content.getPriority();
+    }
+
+    // Copie sur écriture ======================================================
+
+    @Override
+    public void setId(String id) {
+        super.setId(id);
+        ownFields |= OWN_ID;
+    }
+
+    @Override
+    public void setRecipientCode(String recipientCode) {
+        super.setRecipientCode(recipientCode);
+        this.id = null;
+    }
+
+    @Override
+    public void setSenderCode(String senderCode) {
+        super.setSenderCode(senderCode);
+        ownFields |= OWN_SENDER;
+    }
+
+    @Override
+    public void setType(String type) {
+        super.setType(type);
+        ownFields |= OWN_TYPE;
+    }
+
+    @Override
+    public void setTitle(String title) {
+        super.setTitle(title);
+        ownFields |= OWN_TITLE;
+    }
+
+    @Override
+    public void setMessage(String message) {
+        super.setMessage(message);
+        ownFields |= OWN_MESSAGE;
+    }
+
+    @Override
+    public void setTimestamp(LocalDateTime timestamp) {
+        super.setTimestamp(timestamp);
+        ownFields |= OWN_TIMESTAMP;
+    }
+
+    @Override
+    public void setPriority(int priority) {
+        super.setPriority(priority);
+        ownFields |= OWN_PRIORITY;
+    }
+}
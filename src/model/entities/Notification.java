@@ -29,6 +29,12 @@ public class Notification implements Serializable {
     public static final int PRIORITY_HIGH = 3;
     public static final int PRIORITY_URGENT = 4;
     
+    // Couleurs des priorités (partagées, java.awt.Color est immuable)
+    private static final java.awt.Color COLOR_URGENT = new java.awt.Color(220, 53, 69);  // Rouge
+    private static final java.awt.Color COLOR_HIGH   = new java.awt.Color(255, 193, 7);  // Orange
+    private static final java.awt.Color COLOR_NORMAL = new java.awt.Color(23, 162, 184); // Bleu
+    private static final java.awt.Color COLOR_LOW    = new java.awt.Color(108, 117, 125); // Gris
+    
     private String id;
     private String recipientCode;        // Code de l'utilisateur destinataire
     private String senderCode;           // Code de l'utilisateur émetteur (peut être "SYSTEM")
@@ -40,7 +46,8 @@ public class Notification implements Serializable {
     private int priority;                // Priorité (1-4)
     private String actionUrl;            // URL ou action associée (optionnel)
     private String relatedEntityId;      // ID de l'entité liée (ex: code module, matricule)
-    private String iconEmoji;            // Emoji pour l'icône
+    private String iconEmoji;            // Emoji explicite (null = déduit du type)
+    private int occurrences = 1;         // Nombre de notifications regroupées (digest)
     
     /**
      * Constructeur complet
@@ -56,7 +63,15 @@ public class Notification implements Serializable {
         this.timestamp = LocalDateTime.now();
         this.isRead = false;
         this.priority = priority;
-        this.iconEmoji = getDefaultIconForType(type);
+    }
+    
+    /**
+     * Constructeur léger pour les sous-classes dont le contenu est partagé
+     * (seuls le destinataire et l'état lu/non lu sont propres à l'instance)
+     */
+    protected Notification(String recipientCode) {
+        this.recipientCode = recipientCode;
+        this.isRead = false;
     }
     
     /**
@@ -156,14 +171,28 @@ public class Notification implements Serializable {
         this.relatedEntityId = relatedEntityId;
     }
     
+    /**
+     * Emoji explicitement défini, sinon celui du type (calculé à la demande)
+     */
     public String getIconEmoji() {
-        return iconEmoji;
+        return iconEmoji != null ? iconEmoji : getDefaultIconForType(getType());
     }
     
     public void setIconEmoji(String iconEmoji) {
         this.iconEmoji = iconEmoji;
     }
     
+    /**
+     * Nombre de notifications regroupées dans celle-ci (1 si non regroupée)
+     */
+    public int getOccurrences() {
+        return Math.max(1, occurrences);  // 0 pour les notifications sérialisées avant ce champ
+    }
+    
+    public void setOccurrences(int occurrences) {
+        this.occurrences = occurrences;
+    }
+    
     // Méthodes utilitaires
     
     /**
@@ -178,7 +207,7 @@ public class Notification implements Serializable {
      */
     public String getTimeAgo() {
         LocalDateTime now = LocalDateTime.now();
-        long minutes = java.time.Duration.between(timestamp, now).toMinutes();
+        long minutes = java.time.Duration.between(getTimestamp(), now).toMinutes();
         
         if (minutes < 1) {
             return "À l'instant";
@@ -196,7 +225,7 @@ public class Notification implements Serializable {
      */
     public String getFormattedTimestamp() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-        return timestamp.format(formatter);
+        return getTimestamp().format(formatter);
     }
     
     /**
@@ -204,30 +233,30 @@ public class Notification implements Serializable {
      */
     public boolean isRecent() {
         LocalDateTime oneDayAgo = LocalDateTime.now().minusDays(1);
-        return timestamp.isAfter(oneDayAgo);
+        return getTimestamp().isAfter(oneDayAgo);
     }
     
     /**
      * Obtient la couleur associée à la priorité
      */
     public java.awt.Color getPriorityColor() {
-        switch (priority) {
+        switch (getPriority()) {
             case PRIORITY_URGENT:
-                return new java.awt.Color(220, 53, 69);  // Rouge
+                return COLOR_URGENT;
             case PRIORITY_HIGH:
-                return new java.awt.Color(255, 193, 7);  // Orange
+                return COLOR_HIGH;
             case PRIORITY_NORMAL:
-                return new java.awt.Color(23, 162, 184); // Bleu
+                return COLOR_NORMAL;
             case PRIORITY_LOW:
             default:
-                return new java.awt.Color(108, 117, 125); // Gris
+                return COLOR_LOW;
         }
     }
     
     /**
      * Obtient l'icône par défaut selon le type
      */
-    private String getDefaultIconForType(String type) {
+    private static String getDefaultIconForType(String type) {
         switch (type) {
             case TYPE_GRADE_ADDED:
             case TYPE_GRADE_MODIFIED:
@@ -254,6 +283,7 @@ public class Notification implements Serializable {
      * Crée une description courte pour l'aperçu
      */
     public String getShortMessage() {
+        String message = getMessage();
         if (message.length() <= 80) {
             return message;
         }
@@ -263,10 +293,10 @@ public class Notification implements Serializable {
     @Override
     public String toString() {
         return "Notification{" +
-                "id='" + id + '\'' +
+                "id='" + getId() + '\'' +
                 ", recipient='" + recipientCode + '\'' +
-                ", type='" + type + '\'' +
-                ", title='" + title + '\'' +
+                ", type='" + getType() + '\'' +
+                ", title='" + getTitle() + '\'' +
                 ", read=" + isRead +
                 ", timestamp=" + getFormattedTimestamp() +
                 '}';
@@ -277,11 +307,11 @@ public class Notification implements Serializable {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Notification that = (Notification) obj;
-        return id.equals(that.id);
+        return getId().equals(that.getId());
     }
     
     @Override
     public int hashCode() {
-        return id.hashCode();
+        return getId().hashCode();
     }
 }
\ No newline at end of file
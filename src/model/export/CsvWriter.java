@@ -0,0 +1,221 @@
+package model.export;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Écriture CSV/TSV en flux vers un FileChannel.
+ * - Tampons réutilisés (caractères puis octets UTF-8) : mémoire constante quelle que soit la taille
+ * - Échappement RFC 4180 : champ entre guillemets s'il contient séparateur, guillemet ou saut de ligne
+ * - Nombres écrits sans String.format ni objet intermédiaire (voir FixedPoint : seuls les cas .5 limites allouent)
+ * - Fin de ligne CRLF (RFC 4180)
+ */
+public class CsvWriter implements Closeable {
+    public static final char COMMA = ',';
+    public static final char SEMICOLON = ';';
+    public static final char TAB = '\t';
+
+    private static final int CHAR_BUFFER_SIZE = 32 * 1024;
+    private static final int BYTE_BUFFER_SIZE = 256 * 1024;
+
+    private final FileChannel channel;
+    private final char separator;
+    private final char decimalSeparator;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars;
+    private final ByteBuffer bytes;
+    private final StringBuilder number = new StringBuilder(32);   // réutilisé par field(double, int)
+
+    private boolean rowStarted = false;
+
+    public CsvWriter(Path path, char separator) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.separator = separator;
+
+        // Décimales comme %.2f (locale par défaut), sauf si elles se confondent avec le séparateur
+        char localeDecimal = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+        this.decimalSeparator = localeDecimal == separator ? '.' : localeDecimal;
+
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+        this.bytes = ByteBuffer.allocate(BYTE_BUFFER_SIZE);
+    }
+
+    // =========================================================================
+    // CHAMPS
+    // =========================================================================
+
+    /** Champ texte, échappé selon RFC 4180 (null -> champ vide). */
+    public CsvWriter field(String value) throws IOException {
+        startField();
+        if (value == null || value.isEmpty()) return this;
+
+        if (!needsQuoting(value)) {
+            append(value);
+            return this;
+        }
+        put('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') put('"');
+            put(c);
+        }
+        put('"');
+        return this;
+    }
+
+    public CsvWriter field(long value) throws IOException {
+        startField();
+        appendLong(value);
+        return this;
+    }
+
+    /** Nombre à virgule fixe (équivalent de %.Nf), même arrondi que MessageTemplate. */
+    public CsvWriter field(double value, int decimals) throws IOException {
+        startField();
+        number.setLength(0);
+        FixedPoint.append(number, value, decimals, decimalSeparator);
+        for (int i = 0; i < number.length(); i++) {
+            put(number.charAt(i));
+        }
+        return this;
+    }
+
+    /** Ligne complète de champs texte. */
+    public CsvWriter row(String... values) throws IOException {
+        for (String value : values) {
+            field(value);
+        }
+        return endRow();
+    }
+
+    /** Ligne vide (séparation de sections). */
+    public CsvWriter blankRow() throws IOException {
+        return endRow();
+    }
+
+    public CsvWriter endRow() throws IOException {
+        put('\r');
+        put('\n');
+        rowStarted = false;
+        return this;
+    }
+
+    /**
+     * Écrit une ligne par élément, en tirant les éléments au fur et à mesure
+     * (aucune liste intermédiaire n'est construite).
+     */
+    public <T> long writeRows(Iterable<? extends T> source, RowWriter<? super T> rowWriter) throws IOException {
+        long count = 0;
+        for (T item : source) {
+            rowWriter.write(item, this);
+            if (rowStarted) endRow();
+            count++;
+        }
+        return count;
+    }
+
+    // =========================================================================
+    // TAMPONS
+    // =========================================================================
+
+    private void startField() throws IOException {
+        if (rowStarted) {
+            put(separator);
+        }
+        rowStarted = true;
+    }
+
+    private boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == separator || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        return false;
+    }
+
+    private void append(String s) throws IOException {
+        int i = 0;
+        while (i < s.length()) {
+            if (!chars.hasRemaining()) encodeChars(false);
+            int n = Math.min(chars.remaining(), s.length() - i);
+            chars.put(s, i, i + n);
+            i += n;
+        }
+    }
+
+    private void appendLong(long value) throws IOException {
+        if (value < 0) {
+            put('-');
+            if (value == Long.MIN_VALUE) {
+                append("9223372036854775808");
+                return;
+            }
+            value = -value;
+        }
+        long p = 1;
+        while (p <= value / 10) p *= 10;
+        for (; p > 0; p /= 10) {
+            put((char) ('0' + value / p % 10));
+        }
+    }
+
+    private void put(char c) throws IOException {
+        if (!chars.hasRemaining()) encodeChars(false);
+        chars.put(c);
+    }
+
+    /** Encode les caractères en attente vers le tampon d'octets, écrit sur le canal s'il est plein. */
+    private void encodeChars(boolean endOfInput) throws IOException {
+        chars.flip();
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isOverflow()) {
+                writeBytes();
+            } else {
+                break;
+            }
+        }
+        // Une paire de substitution coupée en fin de tampon reste pour le tour suivant
+        chars.compact();
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        bytes.clear();
+    }
+
+    public void flush() throws IOException {
+        encodeChars(false);
+        writeBytes();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            encodeChars(true);
+            while (encoder.flush(bytes).isOverflow()) {
+                writeBytes();
+            }
+            writeBytes();
+        } finally {
+            channel.close();
+        }
+    }
+}
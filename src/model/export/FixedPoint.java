@@ -0,0 +1,67 @@
+package model.export;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Formatage des nombres à virgule fixe, équivalent de %.Nf sans Formatter.
+ * Partagé par CsvWriter et MessageTemplate pour que les exports et les
+ * notifications affichent exactement les mêmes valeurs que String.format.
+ */
+public final class FixedPoint {
+    public static final int MAX_DECIMALS = 6;
+    private static final long[] POW10 = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    // Au-delà, la partie fractionnaire du produit n'est plus représentable (2^52)
+    private static final double MAX_EXACT = 0x1p52;
+    // Écart (en ulp du produit) sous lequel une valeur est traitée comme un cas .5 limite
+    private static final int TIE_ULPS = 4;
+
+    private FixedPoint() {
+    }
+
+    /**
+     * Arrondi HALF_UP de la représentation décimale la plus courte du double
+     * (1.005 -> "1.01", comme String.format). Les valeurs non finies, trop grandes
+     * ou un nombre de décimales hors [0, MAX_DECIMALS] sont écrits tels quels.
+     * Sans allocation : Math.round sur le produit suffit tant qu'il n'est pas à
+     * quelques ulp d'un .5, seul cas où le produit binaire et la représentation
+     * décimale peuvent s'arrondir différemment ; ce cas (rare) passe par BigDecimal.
+     */
+    public static void append(StringBuilder sb, double value, int decimals, char decimalSeparator) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1e15
+                || decimals < 0 || decimals > MAX_DECIMALS) {
+            sb.append(value);
+            return;
+        }
+
+        if (Double.doubleToRawLongBits(value) < 0) {
+            sb.append('-');   // comme %.2f : -0.001 -> "-0.00"
+        }
+
+        double product = Math.abs(value) * POW10[decimals];
+        long scaled;
+        if (product < MAX_EXACT
+                && Math.abs(product - Math.floor(product) - 0.5) > TIE_ULPS * Math.ulp(product)) {
+            scaled = Math.round(product);
+        } else {
+            BigDecimal rounded = BigDecimal.valueOf(Math.abs(value)).setScale(decimals, RoundingMode.HALF_UP);
+            BigInteger unscaled = rounded.unscaledValue();
+            if (unscaled.bitLength() >= 63) {
+                // Très grand nombre avec beaucoup de décimales : dépasse un long
+                sb.append(rounded.toPlainString().replace('.', decimalSeparator));
+                return;
+            }
+            scaled = unscaled.longValue();
+        }
+
+        sb.append(scaled / POW10[decimals]);
+        if (decimals == 0) return;
+
+        sb.append(decimalSeparator);
+        long fraction = scaled % POW10[decimals];
+        for (long p = POW10[decimals - 1]; p > 0; p /= 10) {
+            sb.append((char) ('0' + fraction / p % 10));
+        }
+    }
+}
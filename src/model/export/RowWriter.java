@@ -0,0 +1,12 @@
+package model.export;
+
+import java.io.IOException;
+
+/**
+ * Écrit une ligne d'export pour un élément (ex: une note -> une ligne CSV)
+ * @param <T> Type des éléments exportés
+ */
+@FunctionalInterface
+public interface RowWriter<T> {
+    void write(T item, CsvWriter out) throws IOException;
+}
@@ -0,0 +1,23 @@
+// model/observers/AverageChangeListener.java
+package model.observers;
+
+/**
+ * Écouteur des moyennes calculées par AveragingEngine
+ * Les projections (classements, dashboard) s'y abonnent plutôt qu'aux notes brutes,
+ * pour partager la même pondération
+ */
+public interface AverageChangeListener {
+    /**
+     * Appelé après le recalcul de la moyenne d'un étudiant dans un module
+     * (et donc de sa moyenne générale), hors verrou du moteur
+     * @param studentCode Étudiant concerné
+     * @param moduleCode Module dont la moyenne a changé
+     */
+    void onAverageChanged(String studentCode, String moduleCode);
+
+    /**
+     * Appelé quand toutes les moyennes ont été recalculées
+     * (rechargement des données, changement des règles de pondération)
+     */
+    void onAveragesReset();
+}
@@ -0,0 +1,24 @@
+// model/observers/DataChangeListener.java
+package model.observers;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Écouteur des modifications de données (utilisateurs, modules, notes, inscriptions)
+ * Permet de tenir des projections à jour sans relire les collections complètes
+ */
+public interface DataChangeListener {
+    /**
+     * Appelé après chaque modification, une fois la donnée en place
+     * @param event Modification effectuée
+     */
+    void onDataChanged(DataEvent event);
+
+    /**
+     * Exécuteur sur lequel recevoir les événements.
+     * Par défaut inline : l'écouteur voit les modifications dans l'ordre, sur le thread appelant.
+     */
+    default Executor getExecutor() {
+        return ObserverExecutors.INLINE;
+    }
+}
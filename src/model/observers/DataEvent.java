@@ -0,0 +1,72 @@
+// model/observers/DataEvent.java
+package model.observers;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Événement de modification des données émis par DataManager
+ * - une mutation élémentaire (ajout / mise à jour d'une entité)
+ * - ou RESET quand plusieurs collections changent d'un coup
+ *   (suppression en cascade, réinitialisation) : les abonnés reconstruisent leur état
+ */
+public final class DataEvent {
+
+    public enum Type {
+        USER_ADDED,
+        USER_UPDATED,
+        MODULE_ADDED,
+        MODULE_UPDATED,
+        GRADE_ADDED,
+        GRADE_UPDATED,
+        INSCRIPTION_ADDED,
+        ABSENCE_ADDED,
+        ABSENCE_UPDATED,
+        ABSENCE_DELETED,
+        RESET
+    }
+
+    private final Type type;
+    private final Object entity;
+    private final List<?> replaced;
+    private final long version;
+
+    public DataEvent(Type type, Object entity, List<?> replaced, long version) {
+        this.type = type;
+        this.entity = entity;
+        this.replaced = replaced != null ? replaced : Collections.emptyList();
+        this.version = version;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /** Entité concernée (null pour RESET). */
+    @SuppressWarnings("unchecked")
+    public <T> T getEntity() {
+        return (T) entity;
+    }
+
+    /**
+     * Entités remplacées par une mise à jour ou retirées par une suppression (ex: anciennes notes du même type).
+     * Sert à retrouver les instances à retirer, pas leurs anciennes valeurs : les contrôleurs modifient
+     * souvent l'entité sur place avant la mise à jour (setValue/setDate d'une note, année ou spécialité
+     * d'un étudiant), si bien qu'une entité remplacée peut être l'entité elle-même, déjà modifiée.
+     * Un abonné qui doit retirer une ancienne contribution mémorise donc ce qu'il a compté.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getReplaced() {
+        return (List<T>) replaced;
+    }
+
+    /** Version des données après la modification. */
+    public long getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "DataEvent{" + type + ", v" + version + "}";
+    }
+}
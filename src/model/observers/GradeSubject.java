@@ -1,24 +1,30 @@
 package model.observers;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 /**
  * Classe concrète implémentant Subject
  * Notifie les observateurs lors de changements de notes
+ * (registre copy-on-write : attach/detach possibles pendant une notification)
  */
 public class GradeSubject implements Subject {
-    private List<Observer> observers;
+    private final ObserverRegistry<Observer> observers;
     
     public GradeSubject() {
-        this.observers = new ArrayList<>();
+        this.observers = new ObserverRegistry<>("grades");
     }
     
     @Override
     public void attach(Observer observer) {
-        if (!observers.contains(observer)) {
-            observers.add(observer);
-        }
+        observers.add(observer, ObserverExecutors.INLINE);
+    }
+    
+    /**
+     * Inscrit un observer appelé sur son propre exécuteur (ex: ObserverExecutors.EDT)
+     */
+    public void attach(Observer observer, Executor executor) {
+        observers.add(observer, executor);
     }
     
     @Override
@@ -28,9 +34,11 @@ public class GradeSubject implements Subject {
     
     @Override
     public void notifyObservers(String message, Object data) {
-        for (Observer observer : observers) {
-            observer.update(message, data);
-        }
+        observers.dispatch(observer -> observer.update(message, data));
+    }
+    
+    public List<ObserverRegistry.ObserverMetrics> getObserverMetrics() {
+        return observers.getMetrics();
     }
     
     public void gradeAdded(String studentCode, String moduleCode, double value) {
@@ -3,6 +3,9 @@ package model.observers;
 
 import model.entities.Notification;
 
+import java.util.List;
+import java.util.concurrent.Executor;
+
 /**
  * Interface Observer pour le pattern Observer des notifications
  * Permet aux vues de réagir en temps réel aux nouvelles notifications
@@ -13,4 +16,31 @@ public interface NotificationObserver {
      * @param notification La nouvelle notification
      */
     void onNotificationReceived(Notification notification);
+
+    /**
+     * Appelé une seule fois pour un lot de notifications (envoi groupé, annonce)
+     * Par défaut : délègue à onNotificationReceived pour chaque notification
+     * @param notifications Les notifications du lot, dans l'ordre d'envoi
+     */
+    default void onNotificationsReceived(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            onNotificationReceived(notification);
+        }
+    }
+
+    /**
+     * Appelé quand une notification déjà livrée est modifiée (digest enrichi d'un regroupement)
+     * Par défaut : rien (pas de nouvelle toast) ; les boîtes ouvertes peuvent se rafraîchir
+     * @param notification La notification modifiée
+     */
+    default void onNotificationUpdated(Notification notification) {
+    }
+
+    /**
+     * Exécuteur sur lequel cet observer veut être appelé
+     * Par défaut : dans le thread du dispatcher (voir ObserverExecutors)
+     */
+    default Executor getExecutor() {
+        return ObserverExecutors.INLINE;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+// model/observers/ObserverExecutors.java
+package model.observers;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Exécuteurs usuels pour la livraison aux observers
+ * - INLINE    : dans le thread qui publie (observers très rapides)
+ * - EDT       : dans l'Event Dispatch Thread (composants Swing)
+ * - dedicated : un thread démon propre à l'observer, qui conserve l'ordre des événements
+ */
+public final class ObserverExecutors {
+    public static final Executor INLINE = Runnable::run;
+    public static final Executor EDT = SwingUtilities::invokeLater;
+
+    private ObserverExecutors() {
+    }
+
+    /**
+     * Exécuteur mono-thread démon pour un observer lent ou bloquant
+     * @param name Nom du thread (visible dans les dumps)
+     */
+    public static ExecutorService dedicated(String name) {
+        return Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -0,0 +1,148 @@
+// model/observers/ObserverRegistry.java
+package model.observers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Registre d'observers sans verrou (copy-on-write)
+ * - inscription / désinscription possibles pendant une diffusion
+ * - chaque observer est appelé sur son propre exécuteur (EDT, thread dédié, inline)
+ * - durée de chaque appel mesurée : les observers lents sont signalés
+ * @param <O> Type d'observer
+ */
+public class ObserverRegistry<O> {
+    private static final long SLOW_THRESHOLD_NANOS = 50_000_000L; // 50 ms
+    private static final long SLOW_LOG_EVERY = 100;
+
+    private final String name;
+    private final CopyOnWriteArrayList<Registration<O>> registrations = new CopyOnWriteArrayList<>();
+
+    public ObserverRegistry(String name) {
+        this.name = name;
+    }
+
+    private static class Registration<O> {
+        private final O observer;
+        private final Executor executor;
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong slowCalls = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+
+        Registration(O observer, Executor executor) {
+            this.observer = observer;
+            this.executor = executor;
+        }
+    }
+
+    public void add(O observer, Executor executor) {
+        if (observer == null) return;
+        synchronized (registrations) {
+            for (Registration<O> r : registrations) {
+                if (r.observer.equals(observer)) return;
+            }
+            registrations.add(new Registration<>(observer,
+                    executor != null ? executor : ObserverExecutors.INLINE));
+        }
+    }
+
+    public void remove(O observer) {
+        registrations.removeIf(r -> r.observer.equals(observer));
+    }
+
+    public boolean isEmpty() {
+        return registrations.isEmpty();
+    }
+
+    public int size() {
+        return registrations.size();
+    }
+
+    /**
+     * Diffuse un appel à tous les observers inscrits au moment de l'appel.
+     * Ne bloque que sur les observers INLINE ; une exception n'interrompt pas la diffusion.
+     */
+    public void dispatch(Consumer<? super O> call) {
+        for (Registration<O> r : registrations) {
+            try {
+                r.executor.execute(() -> invoke(r, call));
+            } catch (RuntimeException e) {
+                // Exécuteur arrêté ou saturé
+                r.failures.incrementAndGet();
+                System.err.println("❌ Livraison impossible (" + name + "): " + e.getMessage());
+            }
+        }
+    }
+
+    private void invoke(Registration<O> r, Consumer<? super O> call) {
+        long start = System.nanoTime();
+        try {
+            call.accept(r.observer);
+        } catch (RuntimeException e) {
+            r.failures.incrementAndGet();
+            System.err.println("❌ Erreur observer (" + name + "): " + e.getMessage());
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            r.calls.incrementAndGet();
+            r.totalNanos.addAndGet(elapsed);
+            r.maxNanos.accumulateAndGet(elapsed, Math::max);
+            if (elapsed >= SLOW_THRESHOLD_NANOS) {
+                long slow = r.slowCalls.incrementAndGet();
+                if (slow == 1 || slow % SLOW_LOG_EVERY == 0) {
+                    System.err.println("⚠️ Observer lent (" + name + "): "
+                            + r.observer.getClass().getName() + " " + elapsed / 1_000_000 + " ms"
+                            + " (" + slow + " appels lents)");
+                }
+            }
+        }
+    }
+
+    /** Instantané des métriques par observer. */
+    public List<ObserverMetrics> getMetrics() {
+        List<ObserverMetrics> metrics = new ArrayList<>();
+        for (Registration<O> r : registrations) {
+            metrics.add(new ObserverMetrics(r.observer.getClass().getName(),
+                    r.calls.get(), r.totalNanos.get(), r.maxNanos.get(),
+                    r.slowCalls.get(), r.failures.get()));
+        }
+        return metrics;
+    }
+
+    /**
+     * Métriques d'un observer
+     */
+    public static class ObserverMetrics {
+        public final String observer;
+        public final long calls;
+        public final long totalNanos;
+        public final long maxNanos;
+        public final long slowCalls;
+        public final long failures;
+
+        public ObserverMetrics(String observer, long calls, long totalNanos, long maxNanos,
+                               long slowCalls, long failures) {
+            this.observer = observer;
+            this.calls = calls;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+            this.slowCalls = slowCalls;
+            this.failures = failures;
+        }
+
+        public double getAverageMillis() {
+            return calls == 0 ? 0 : totalNanos / 1_000_000.0 / calls;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d appels, moy %.2f ms, max %.2f ms, %d lents, %d erreurs",
+                    observer, calls, getAverageMillis(), maxNanos / 1_000_000.0, slowCalls, failures);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+// model/observers/UnreadCountListener.java
+package model.observers;
+
+/**
+ * Écouteur du nombre de notifications non lues d'un utilisateur
+ * Permet au badge de se rafraîchir sans relire la boîte de réception
+ */
+public interface UnreadCountListener {
+    /**
+     * Appelé après chaque changement du compteur, hors verrou,
+     * depuis le thread qui a provoqué le changement
+     * @param userCode Utilisateur concerné
+     * @param unreadCount Nouveau nombre de notifications non lues
+     */
+    void onUnreadCountChanged(String userCode, int unreadCount);
+}
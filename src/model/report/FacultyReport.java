@@ -0,0 +1,127 @@
+package model.report;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Résultat du moteur de rapport de faculté : agrégats globaux,
+ * par module (dans l'ordre des modules fournis) et par promotion (année × spécialité).
+ * Immuable une fois construit.
+ */
+public class FacultyReport {
+    private final int totalStudents;
+    private final int admittedStudents;
+    private final double globalAverage;
+    private final List<ModuleStats> modules;
+    private final List<CohortStats> cohorts;
+    private final Map<String, Double> studentAverages;
+
+    FacultyReport(int totalStudents, int admittedStudents, double globalAverage,
+                  List<ModuleStats> modules, List<CohortStats> cohorts,
+                  Map<String, Double> studentAverages) {
+        this.totalStudents = totalStudents;
+        this.admittedStudents = admittedStudents;
+        this.globalAverage = globalAverage;
+        this.modules = Collections.unmodifiableList(modules);
+        this.cohorts = Collections.unmodifiableList(cohorts);
+        this.studentAverages = Collections.unmodifiableMap(studentAverages);
+    }
+
+    public int getTotalStudents() {
+        return totalStudents;
+    }
+
+    /** Étudiants dont la moyenne (toutes notes confondues) est >= 10. */
+    public int getAdmittedStudents() {
+        return admittedStudents;
+    }
+
+    public double getSuccessRate() {
+        return totalStudents > 0 ? admittedStudents * 100.0 / totalStudents : 0.0;
+    }
+
+    /** Moyenne des moyennes étudiantes (0 pour un étudiant sans note). */
+    public double getGlobalAverage() {
+        return globalAverage;
+    }
+
+    public List<ModuleStats> getModules() {
+        return modules;
+    }
+
+    public List<CohortStats> getCohorts() {
+        return cohorts;
+    }
+
+    /** Moyenne d'un étudiant (0 s'il n'a aucune note). */
+    public double getStudentAverage(String studentCode) {
+        return studentAverages.getOrDefault(studentCode, 0.0);
+    }
+
+    // =========================================================================
+    // AGRÉGATS
+    // =========================================================================
+
+    /**
+     * Statistiques d'un module
+     */
+    public static class ModuleStats {
+        public final String code;
+        public final String name;
+        public final String professorCode;
+        public final int credits;
+        public final int enrolled;
+        public final int gradeCount;
+        public final double gradeSum;
+        public final int passingGrades;
+
+        ModuleStats(String code, String name, String professorCode, int credits,
+                    int enrolled, int gradeCount, double gradeSum, int passingGrades) {
+            this.code = code;
+            this.name = name;
+            this.professorCode = professorCode;
+            this.credits = credits;
+            this.enrolled = enrolled;
+            this.gradeCount = gradeCount;
+            this.gradeSum = gradeSum;
+            this.passingGrades = passingGrades;
+        }
+
+        public double getAverage() {
+            return gradeCount > 0 ? gradeSum / gradeCount : 0.0;
+        }
+
+        /** Pourcentage de notes >= 10. */
+        public double getSuccessRate() {
+            return gradeCount > 0 ? passingGrades * 100.0 / gradeCount : 0.0;
+        }
+    }
+
+    /**
+     * Statistiques d'une promotion (année × spécialité)
+     */
+    public static class CohortStats {
+        public final int year;
+        public final String speciality;
+        public final int students;
+        public final int admitted;
+        public final double averageSum;
+
+        CohortStats(int year, String speciality, int students, int admitted, double averageSum) {
+            this.year = year;
+            this.speciality = speciality;
+            this.students = students;
+            this.admitted = admitted;
+            this.averageSum = averageSum;
+        }
+
+        public double getAverage() {
+            return students > 0 ? averageSum / students : 0.0;
+        }
+
+        public double getSuccessRate() {
+            return students > 0 ? admitted * 100.0 / students : 0.0;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package model.report;
+
+import model.entities.Grade;
+import model.entities.Inscription;
+import model.entities.Module;
+import model.entities.Student;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Moteur de rapport de faculté parallèle (fork/join).
+ * - Passe 1 : notes et inscriptions découpées en tranches, chaque tranche produit
+ *   des sommes partielles par module et par étudiant, fusionnées deux à deux
+ * - Passe 2 : étudiants découpés en tranches, moyennes et agrégats par promotion
+ * Chaque note n'est lue qu'une fois, quel que soit le nombre de modules.
+ * Les listes fournies peuvent être des vues (ex: dataManager.grades()) si aucune
+ * modification ne peut avoir lieu pendant compute(), sinon des copies.
+ */
+public class FacultyReportEngine {
+    // En dessous : calcul séquentiel de la tranche
+    private static final int THRESHOLD = 4096;
+    private static final double PASSING_AVERAGE = 10.0;
+    // Tolérance d'arrondi des moyennes recalculées ici : l'ordre des sommes partielles
+    // varie avec le découpage, une moyenne de 10 exactement ne doit pas tomber à 9.999999...
+    private static final double EPSILON = 1e-9;
+
+    private final ForkJoinPool pool;
+
+    public FacultyReportEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public FacultyReportEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public FacultyReport compute(List<Student> students, List<Module> modules,
+                                 List<Grade> grades, List<Inscription> inscriptions) {
+        return compute(students, modules, grades, inscriptions, null);
+    }
+
+    /**
+     * @param studentAverages moyennes générales déjà calculées (ex: AveragingEngine.getAverages()),
+     *                        ou null pour la moyenne simple des notes
+     */
+    public FacultyReport compute(List<Student> students, List<Module> modules,
+                                 List<Grade> grades, List<Inscription> inscriptions,
+                                 Map<String, Double> studentAverages) {
+        GradeTask gradeTask = new GradeTask(grades, 0, grades.size());
+        InscriptionTask inscriptionTask = new InscriptionTask(inscriptions, 0, inscriptions.size());
+
+        // Passe 1 : notes et inscriptions en parallèle
+        Map<String, Integer> enrolled = pool.invoke(new RecursiveTask<Map<String, Integer>>() {
+            @Override
+            protected Map<String, Integer> compute() {
+                ForkJoinTask.invokeAll(gradeTask, inscriptionTask);
+                return inscriptionTask.join();
+            }
+        });
+        GradePartial gradePartial = gradeTask.join();
+
+        // Passe 2 : moyennes étudiantes et promotions
+        StudentPartial studentPartial = pool.invoke(
+                new StudentTask(students, 0, students.size(), gradePartial.byStudent, studentAverages));
+
+        List<FacultyReport.ModuleStats> moduleStats = new ArrayList<>(modules.size());
+        for (Module m : modules) {
+            ModuleAcc acc = gradePartial.byModule.get(m.getCode());
+            moduleStats.add(new FacultyReport.ModuleStats(
+                    m.getCode(), m.getName(), m.getProfessorCode(), m.getCredits(),
+                    enrolled.getOrDefault(m.getCode(), 0),
+                    acc != null ? acc.count : 0,
+                    acc != null ? acc.sum : 0.0,
+                    acc != null ? acc.passing : 0));
+        }
+
+        List<FacultyReport.CohortStats> cohortStats = new ArrayList<>(studentPartial.cohorts.size());
+        for (CohortAcc acc : studentPartial.cohorts.values()) {
+            cohortStats.add(new FacultyReport.CohortStats(
+                    acc.year, acc.speciality, acc.students, acc.admitted, acc.averageSum));
+        }
+        cohortStats.sort(Comparator.comparingInt((FacultyReport.CohortStats c) -> c.year)
+                .thenComparing(c -> c.speciality));
+
+        int totalStudents = students.size();
+        double globalAverage = totalStudents > 0 ? studentPartial.averageSum / totalStudents : 0.0;
+        return new FacultyReport(totalStudents, studentPartial.admitted, globalAverage,
+                moduleStats, cohortStats, studentPartial.averages);
+    }
+
+    // =========================================================================
+    // ACCUMULATEURS
+    // =========================================================================
+
+    private static class ModuleAcc {
+        int count;
+        double sum;
+        int passing;
+
+        void merge(ModuleAcc other) {
+            count += other.count;
+            sum += other.sum;
+            passing += other.passing;
+        }
+    }
+
+    private static class CohortAcc {
+        final int year;
+        final String speciality;
+        int students;
+        int admitted;
+        double averageSum;
+
+        CohortAcc(int year, String speciality) {
+            this.year = year;
+            this.speciality = speciality;
+        }
+
+        void merge(CohortAcc other) {
+            students += other.students;
+            admitted += other.admitted;
+            averageSum += other.averageSum;
+        }
+    }
+
+    private static class GradePartial {
+        final Map<String, ModuleAcc> byModule = new HashMap<>();
+        final Map<String, double[]> byStudent = new HashMap<>();   // {somme, nombre}
+
+        GradePartial merge(GradePartial other) {
+            other.byModule.forEach((code, acc) -> {
+                ModuleAcc mine = byModule.putIfAbsent(code, acc);
+                if (mine != null) mine.merge(acc);
+            });
+            other.byStudent.forEach((code, acc) -> {
+                double[] mine = byStudent.putIfAbsent(code, acc);
+                if (mine != null) {
+                    mine[0] += acc[0];
+                    mine[1] += acc[1];
+                }
+            });
+            return this;
+        }
+    }
+
+    private static class StudentPartial {
+        final Map<String, CohortAcc> cohorts = new HashMap<>();
+        final Map<String, Double> averages = new HashMap<>();
+        int admitted;
+        double averageSum;
+
+        StudentPartial merge(StudentPartial other) {
+            other.cohorts.forEach((key, acc) -> {
+                CohortAcc mine = cohorts.putIfAbsent(key, acc);
+                if (mine != null) mine.merge(acc);
+            });
+            averages.putAll(other.averages);
+            admitted += other.admitted;
+            averageSum += other.averageSum;
+            return this;
+        }
+    }
+
+    // =========================================================================
+    // TÂCHES
+    // =========================================================================
+
+    private static class GradeTask extends RecursiveTask<GradePartial> {
+        private final List<Grade> grades;
+        private final int from;
+        private final int to;
+
+        GradeTask(List<Grade> grades, int from, int to) {
+            this.grades = grades;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected GradePartial compute() {
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                GradeTask left = new GradeTask(grades, from, mid);
+                left.fork();
+                GradePartial right = new GradeTask(grades, mid, to).compute();
+                return left.join().merge(right);
+            }
+
+            GradePartial partial = new GradePartial();
+            for (int i = from; i < to; i++) {
+                Grade g = grades.get(i);
+                ModuleAcc module = partial.byModule.computeIfAbsent(g.getModuleCode(), k -> new ModuleAcc());
+                module.count++;
+                module.sum += g.getValue();
+                if (g.isPassing()) module.passing++;
+
+                double[] student = partial.byStudent.computeIfAbsent(g.getStudentCode(), k -> new double[2]);
+                student[0] += g.getValue();
+                student[1]++;
+            }
+            return partial;
+        }
+    }
+
+    private static class InscriptionTask extends RecursiveTask<Map<String, Integer>> {
+        private final List<Inscription> inscriptions;
+        private final int from;
+        private final int to;
+
+        InscriptionTask(List<Inscription> inscriptions, int from, int to) {
+            this.inscriptions = inscriptions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<String, Integer> compute() {
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                InscriptionTask left = new InscriptionTask(inscriptions, from, mid);
+                left.fork();
+                Map<String, Integer> right = new InscriptionTask(inscriptions, mid, to).compute();
+                Map<String, Integer> merged = left.join();
+                right.forEach((code, n) -> merged.merge(code, n, Integer::sum));
+                return merged;
+            }
+
+            Map<String, Integer> counts = new HashMap<>();
+            for (int i = from; i < to; i++) {
+                counts.merge(inscriptions.get(i).getModuleCode(), 1, Integer::sum);
+            }
+            return counts;
+        }
+    }
+
+    private static class StudentTask extends RecursiveTask<StudentPartial> {
+        private final List<Student> students;
+        private final int from;
+        private final int to;
+        private final Map<String, double[]> sums;
+        private final Map<String, Double> averages;
+
+        StudentTask(List<Student> students, int from, int to,
+                    Map<String, double[]> sums, Map<String, Double> averages) {
+            this.students = students;
+            this.from = from;
+            this.to = to;
+            this.sums = sums;
+            this.averages = averages;
+        }
+
+        @Override
+        protected StudentPartial compute() {
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                StudentTask left = new StudentTask(students, from, mid, sums, averages);
+                left.fork();
+                StudentPartial right = new StudentTask(students, mid, to, sums, averages).compute();
+                return left.join().merge(right);
+            }
+
+            StudentPartial partial = new StudentPartial();
+            for (int i = from; i < to; i++) {
+                Student s = students.get(i);
+                double[] acc = sums.get(s.getCode());
+                Double given = averages != null ? averages.get(s.getCode()) : null;
+                boolean graded = averages != null ? given != null && !given.isNaN() : acc != null;
+                double average = !graded ? 0.0 : (averages != null ? given : acc[0] / acc[1]);
+                // Moyennes fournies par AveragingEngine : même seuil exact que le dashboard et le cube
+                boolean admitted = averages != null
+                        ? average >= PASSING_AVERAGE
+                        : average >= PASSING_AVERAGE - EPSILON;
+
+                String speciality = s.getSpeciality() != null ? s.getSpeciality() : "";
+                CohortAcc cohort = partial.cohorts.computeIfAbsent(s.getYear() + "|" + speciality,
+                        k -> new CohortAcc(s.getYear(), speciality));
+                cohort.students++;
+                cohort.averageSum += average;
+                if (admitted) {
+                    cohort.admitted++;
+                    partial.admitted++;
+                }
+                partial.averageSum += average;
+                if (graded) {
+                    partial.averages.put(s.getCode(), average);
+                }
+            }
+            return partial;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package model.report;
+
+import model.entities.Absence;
+import model.entities.Grade;
+import model.entities.Inscription;
+import model.entities.Module;
+import model.stats.AveragingEngine;
+import model.stats.WeightingRules;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statistiques d'un professeur calculées par jointure par hachage.
+ * - Table de hachage construite sur les modules du professeur
+ * - Inscriptions, notes et absences parcourues une seule fois chacune et sondées dans cette table
+ * - Moyennes lues dans AveragingEngine pour chaque couple (étudiant inscrit, module)
+ * Coût linéaire dans la taille des données, quel que soit le nombre d'étudiants par module.
+ * Immuable une fois construit.
+ */
+public class ProfessorAnalytics {
+    // Heuristique : 15 séances prévues par module et par étudiant inscrit
+    private static final int SESSIONS_PER_MODULE = 15;
+    private static final double PASSING_AVERAGE = 10.0;
+
+    private final double globalAverage;
+    private final double successRate;
+    private final double presenceRate;
+    private final long studentsInDifficulty;
+    private final int enrolledStudents;
+    private final Map<String, ModuleStats> modules;
+
+    /** Agrégats d'un module du professeur. */
+    public static class ModuleStats {
+        public final String code;
+        public final int enrolled;
+        public final int gradeCount;
+        public final int passingGrades;
+        public final int absences;
+        private final double averageSum;
+        private final int averageCount;
+
+        ModuleStats(String code, int enrolled, int gradeCount, int passingGrades, int absences,
+                    double averageSum, int averageCount) {
+            this.code = code;
+            this.enrolled = enrolled;
+            this.gradeCount = gradeCount;
+            this.passingGrades = passingGrades;
+            this.absences = absences;
+            this.averageSum = averageSum;
+            this.averageCount = averageCount;
+        }
+
+        /** Moyenne de classe (moyennes pondérées des inscrits notés), 0 sans note. */
+        public double getAverage() {
+            return averageCount > 0 ? averageSum / averageCount : 0.0;
+        }
+
+        /** Part des notes >= 10, en %. */
+        public double getPassRate() {
+            return gradeCount > 0 ? passingGrades * 100.0 / gradeCount : 0.0;
+        }
+    }
+
+    // Accumulateur d'un module pendant la jointure
+    private static class ModuleAcc {
+        final Module module;
+        int enrolled;
+        int gradeCount;
+        int passingGrades;
+        int absences;
+        double averageSum;
+        int averageCount;
+
+        ModuleAcc(Module module) {
+            this.module = module;
+        }
+    }
+
+    private ProfessorAnalytics(double globalAverage, double successRate, double presenceRate,
+                               long studentsInDifficulty, int enrolledStudents,
+                               Map<String, ModuleStats> modules) {
+        this.globalAverage = globalAverage;
+        this.successRate = successRate;
+        this.presenceRate = presenceRate;
+        this.studentsInDifficulty = studentsInDifficulty;
+        this.enrolledStudents = enrolledStudents;
+        this.modules = modules;
+    }
+
+    /**
+     * @param professorModules modules du professeur (côté construction de la jointure)
+     * @param inscriptions     inscriptions (toutes ou pré-filtrées)
+     * @param grades           notes (toutes ou pré-filtrées)
+     * @param absences         absences (toutes ou pré-filtrées)
+     * @param averaging        source des moyennes pondérées
+     */
+    public static ProfessorAnalytics compute(Collection<Module> professorModules,
+                                             Iterable<Inscription> inscriptions,
+                                             Iterable<Grade> grades,
+                                             Iterable<Absence> absences,
+                                             AveragingEngine averaging) {
+        // Construction : module -> accumulateur (ordre des modules conservé)
+        Map<String, ModuleAcc> byModule = new LinkedHashMap<>(professorModules.size() * 2);
+        for (Module m : professorModules) {
+            byModule.put(m.getCode(), new ModuleAcc(m));
+        }
+
+        // Sonde 1 : inscriptions -> étudiant -> modules du professeur suivis (moyenne remplie plus bas)
+        Map<String, Map<String, Double>> enrolled = new HashMap<>();
+        int enrolledPairs = 0;
+        for (Inscription ins : inscriptions) {
+            ModuleAcc acc = byModule.get(ins.getModuleCode());
+            if (acc == null) continue;
+            if (enrolled.computeIfAbsent(ins.getStudentCode(), k -> new HashMap<>(4))
+                    .put(ins.getModuleCode(), Double.NaN) == null) {
+                acc.enrolled++;
+                enrolledPairs++;
+            }
+        }
+
+        // Sonde 2 : notes
+        long gradeCount = 0;
+        long passingGrades = 0;
+        for (Grade g : grades) {
+            ModuleAcc acc = byModule.get(g.getModuleCode());
+            if (acc == null) continue;
+            acc.gradeCount++;
+            gradeCount++;
+            if (g.isPassing()) {
+                acc.passingGrades++;
+                passingGrades++;
+            }
+        }
+
+        // Sonde 3 : absences
+        long absenceCount = 0;
+        for (Absence a : absences) {
+            ModuleAcc acc = byModule.get(a.getModuleCode());
+            if (acc == null) continue;
+            acc.absences++;
+            absenceCount++;
+        }
+
+        // Moyennes par couple (étudiant, module) et moyenne de l'étudiant sur ces modules
+        WeightingRules rules = averaging.getRules();
+        double averageSum = 0;
+        int averageCount = 0;
+        long inDifficulty = 0;
+        for (Map.Entry<String, Map<String, Double>> e : enrolled.entrySet()) {
+            Map<String, Double> studentModules = e.getValue();
+            for (Map.Entry<String, Double> m : studentModules.entrySet()) {
+                double avg = averaging.getModuleAverage(e.getKey(), m.getKey());
+                m.setValue(avg);
+                if (Double.isNaN(avg)) continue;
+                ModuleAcc acc = byModule.get(m.getKey());
+                acc.averageSum += avg;
+                acc.averageCount++;
+                averageSum += avg;
+                averageCount++;
+            }
+            double studentAverage = rules.combine(studentModules, code -> byModule.get(code).module);
+            if (studentAverage < PASSING_AVERAGE) { // NaN (aucune note) -> pas en difficulté
+                inDifficulty++;
+            }
+        }
+
+        Map<String, ModuleStats> moduleStats = new LinkedHashMap<>(byModule.size() * 2);
+        for (ModuleAcc acc : byModule.values()) {
+            moduleStats.put(acc.module.getCode(), new ModuleStats(acc.module.getCode(), acc.enrolled,
+                    acc.gradeCount, acc.passingGrades, acc.absences, acc.averageSum, acc.averageCount));
+        }
+
+        long plannedSessions = (long) enrolledPairs * SESSIONS_PER_MODULE;
+        return new ProfessorAnalytics(
+                averageCount > 0 ? averageSum / averageCount : 0.0,
+                gradeCount > 0 ? passingGrades * 100.0 / gradeCount : 0.0,
+                plannedSessions > 0 ? (plannedSessions - absenceCount) * 100.0 / plannedSessions : 100.0,
+                inDifficulty,
+                enrolled.size(),
+                moduleStats);
+    }
+
+    /** Moyenne de classe sur tous les modules du professeur (0 sans note). */
+    public double getGlobalAverage() {
+        return globalAverage;
+    }
+
+    /** Part des notes >= 10, en %. */
+    public double getSuccessRate() {
+        return successRate;
+    }
+
+    /** Taux de présence approché : séances prévues moins absences, en %. */
+    public double getPresenceRate() {
+        return presenceRate;
+    }
+
+    /** Étudiants inscrits dont la moyenne sur les modules du professeur est < 10. */
+    public long getStudentsInDifficulty() {
+        return studentsInDifficulty;
+    }
+
+    /** Étudiants distincts inscrits à au moins un module du professeur. */
+    public int getEnrolledStudents() {
+        return enrolledStudents;
+    }
+
+    /** @return les agrégats du module, ou null s'il n'appartient pas au professeur */
+    public ModuleStats getModuleStats(String moduleCode) {
+        return modules.get(moduleCode);
+    }
+}
@@ -0,0 +1,171 @@
+package model.report;
+
+import model.entities.Grade;
+import model.entities.Inscription;
+import model.entities.Module;
+import model.entities.Professor;
+import model.entities.Student;
+import model.export.CsvWriter;
+import model.stats.AveragingEngine;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Mise en forme des rapports, partagée par les exports interactifs des contrôleurs
+ * et par les générations planifiées (ReportScheduler) : un même rapport a le même
+ * contenu quel que soit le chemin qui l'a produit.
+ * Ne lit jamais DataManager : toutes les données sont passées en paramètre.
+ */
+public final class ReportRenderer {
+    private static final String[] GRADE_TYPES = {
+            Grade.TYPE_EXAM, Grade.TYPE_CC, Grade.TYPE_TP, Grade.TYPE_TD
+    };
+
+    private ReportRenderer() {
+    }
+
+    // =========================================================================
+    // RAPPORT DE FACULTÉ (CSV)
+    // =========================================================================
+
+    /**
+     * @param professorName code professeur -> nom complet (null si inconnu)
+     */
+    public static void writeFacultyReport(CsvWriter csv, FacultyReport report,
+                                          int totalStudents, int totalTeachers, int totalModules,
+                                          Function<String, String> professorName) throws IOException {
+        csv.row("RAPPORT ADMINISTRATIF", LocalDate.now().toString());
+        csv.blankRow();
+
+        csv.row("STATISTIQUES GÉNÉRALES");
+        csv.field("Nombre d'étudiants").field(totalStudents).endRow();
+        csv.field("Nombre d'enseignants").field(totalTeachers).endRow();
+        csv.field("Nombre de modules").field(totalModules).endRow();
+        csv.field("Étudiants admis").field(report.getAdmittedStudents()).endRow();
+        csv.field("Taux de réussite").field(String.format("%.1f%%", report.getSuccessRate())).endRow();
+        csv.blankRow();
+
+        csv.row("DÉTAILS PAR MODULE");
+        csv.row("Code", "Nom", "Professeur", "Crédits", "Inscrits", "Notes", "Moyenne", "Succès (%)");
+        csv.writeRows(report.getModules(), (m, out) -> {
+            String profName = m.professorCode != null ? professorName.apply(m.professorCode) : null;
+
+            out.field(m.code)
+               .field(m.name)
+               .field(profName != null ? profName : "Non affecté")
+               .field(m.credits)
+               .field(m.enrolled)
+               .field(m.gradeCount)
+               .field(m.getAverage(), 2)
+               .field(m.getSuccessRate(), 1);
+        });
+        csv.blankRow();
+
+        csv.row("DÉTAILS PAR PROMOTION");
+        csv.row("Année", "Spécialité", "Étudiants", "Admis", "Moyenne", "Réussite (%)");
+        csv.writeRows(report.getCohorts(), (c, out) -> out
+                .field(c.year)
+                .field(c.speciality)
+                .field(c.students)
+                .field(c.admitted)
+                .field(c.getAverage(), 2)
+                .field(c.getSuccessRate(), 1));
+    }
+
+    // =========================================================================
+    // RAPPORT PROFESSEUR (TEXTE)
+    // =========================================================================
+    public static String professorReport(Professor professor, Collection<Module> modules,
+                                         int totalStudents, int gradeCount, int absenceCount,
+                                         ProfessorAnalytics stats) {
+        StringBuilder report = new StringBuilder();
+        report.append("RAPPORT STATISTIQUE DU PROFESSEUR\n");
+        report.append("Professeur : ").append(professor.getFullName()).append("\n");
+        report.append("Code : ").append(professor.getCode()).append("\n");
+        report.append("Date : ").append(LocalDate.now().format(
+                DateTimeFormatter.ofPattern("dd/MM/yyyy"))).append("\n\n");
+
+        report.append("STATISTIQUES GÉNÉRALES\n");
+        report.append("Nombre d'étudiants : ").append(totalStudents).append("\n");
+        report.append("Modules enseignés : ").append(modules.size()).append("\n");
+        report.append("Notes enregistrées : ").append(gradeCount).append("\n");
+        report.append("Absences enregistrées : ").append(absenceCount).append("\n\n");
+
+        report.append("PERFORMANCE ACADÉMIQUE\n");
+        report.append(String.format("Moyenne générale : %.2f/20\n", stats.getGlobalAverage()));
+        report.append(String.format("Taux de réussite : %.2f%%\n", stats.getSuccessRate()));
+        report.append(String.format("Taux de présence (approx.) : %.2f%%\n", stats.getPresenceRate()));
+        report.append("Étudiants en difficulté (moyenne < 10) : ").append(stats.getStudentsInDifficulty()).append("\n\n");
+
+        report.append("DÉTAILS PAR MODULE\n");
+        for (Module m : modules) {
+            ProfessorAnalytics.ModuleStats ms = stats.getModuleStats(m.getCode());
+            if (ms != null && ms.gradeCount > 0) {
+                report.append(String.format("- %s (%s) : moyenne %.2f/20, %d notes, %.2f%% de réussite\n",
+                        m.getName(), m.getCode(), ms.getAverage(), ms.gradeCount, ms.getPassRate()));
+            } else {
+                report.append(String.format("- %s (%s) : aucune note enregistrée\n",
+                        m.getName(), m.getCode()));
+            }
+        }
+
+        return report.toString();
+    }
+
+    // =========================================================================
+    // RELEVÉ D'UN MODULE (CSV)
+    // =========================================================================
+
+    /**
+     * Une ligne par étudiant inscrit (ou noté) : dernière note de chaque type et moyenne pondérée.
+     * @param inscriptions inscriptions du module
+     * @param grades       notes du module
+     * @param students     code -> étudiant (nom affiché)
+     */
+    public static void writeModuleReport(CsvWriter csv, Module module,
+                                         Collection<Inscription> inscriptions, Collection<Grade> grades,
+                                         Map<String, Student> students, AveragingEngine averaging) throws IOException {
+        // étudiant -> type -> note (la dernière enregistrée l'emporte)
+        Set<String> codes = new LinkedHashSet<>();
+        for (Inscription ins : inscriptions) {
+            codes.add(ins.getStudentCode());
+        }
+        Map<String, Map<String, Double>> byStudent = new HashMap<>(codes.size() * 2);
+        for (Grade g : grades) {
+            codes.add(g.getStudentCode());
+            byStudent.computeIfAbsent(g.getStudentCode(), k -> new HashMap<>(8))
+                    .put(g.getType().toLowerCase(), g.getValue());
+        }
+
+        csv.row("RELEVÉ DU MODULE", module.getCode(), module.getName(), LocalDate.now().toString());
+        csv.blankRow();
+        csv.row("Code", "Étudiant", GRADE_TYPES[0], GRADE_TYPES[1], GRADE_TYPES[2], GRADE_TYPES[3], "Moyenne");
+        csv.writeRows(codes, (code, out) -> {
+            Student s = students.get(code);
+            Map<String, Double> values = byStudent.getOrDefault(code, Map.of());
+            out.field(code).field(s != null ? s.getFullName() : null);
+            for (String type : GRADE_TYPES) {
+                Double value = values.get(type.toLowerCase());
+                if (value != null) {
+                    out.field(value, 2);
+                } else {
+                    out.field((String) null);
+                }
+            }
+            double average = averaging.getModuleAverage(code, module.getCode());
+            if (Double.isNaN(average)) {
+                out.field((String) null);
+            } else {
+                out.field(average, 2);
+            }
+        });
+    }
+}
@@ -0,0 +1,389 @@
+package model.report;
+
+import model.dao.DataManager;
+import model.entities.Absence;
+import model.entities.Grade;
+import model.entities.Inscription;
+import model.entities.Module;
+import model.entities.Professor;
+import model.entities.Student;
+import model.export.CsvWriter;
+import model.stats.AveragingEngine;
+
+import javax.swing.SwingUtilities;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Génération planifiée des rapports, hors de l'EDT.
+ * - Chaque nuit (et à la demande) : rapport de faculté, un rapport par professeur, un relevé CSV par module
+ * - Photo des données prise sur l'EDT (invokeAndWait), calculs et écritures sur un thread dédié
+ * - Fichiers écrits dans reports/ (remplacement atomique), puis manifest.properties avec la version des données
+ * - Les exports servent le fichier pré-calculé tant que la version des données n'a pas changé
+ * La version de DataManager repart de zéro à chaque lancement : les fichiers d'une session
+ * précédente ne sont servis qu'après une nouvelle génération.
+ * Implémente le pattern Singleton.
+ */
+public class ReportScheduler {
+    private static ReportScheduler instance;
+
+    private static final LocalTime NIGHTLY_RUN = LocalTime.of(2, 0);
+    private static final String REPORTS_DIR = "reports";
+    private static final String FACULTY_FILE = "faculte.csv";
+    private static final String PROFESSORS_DIR = "professeurs";
+    private static final String MODULES_DIR = "modules";
+    private static final String MANIFEST_FILE = "manifest.properties";
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private final DataManager dataManager;
+    private final AveragingEngine averaging;
+    private final FacultyReportEngine reportEngine;
+    private final Path directory;
+    private final ScheduledExecutorService executor;
+
+    private ScheduledFuture<?> nightly;
+    private CompletableFuture<Manifest> running;
+    private volatile Manifest current;
+
+    private ReportScheduler(DataManager dataManager, AveragingEngine averaging, Path directory) {
+        this.dataManager = dataManager;
+        this.averaging = averaging;
+        this.reportEngine = new FacultyReportEngine();
+        this.directory = directory;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "report-scheduler");
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+    }
+
+    public static ReportScheduler getInstance() {
+        if (instance == null) {
+            synchronized (ReportScheduler.class) {
+                if (instance == null) {
+                    instance = new ReportScheduler(DataManager.getInstance(), AveragingEngine.getInstance(),
+                            Paths.get(REPORTS_DIR));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** Génération réussie : version des données couverte et emplacement des fichiers. */
+    public static class Manifest {
+        private final long dataVersion;
+        private final LocalDateTime generatedAt;
+        private final int fileCount;
+
+        Manifest(long dataVersion, LocalDateTime generatedAt, int fileCount) {
+            this.dataVersion = dataVersion;
+            this.generatedAt = generatedAt;
+            this.fileCount = fileCount;
+        }
+
+        public long getDataVersion() {
+            return dataVersion;
+        }
+
+        public LocalDateTime getGeneratedAt() {
+            return generatedAt;
+        }
+
+        public int getFileCount() {
+            return fileCount;
+        }
+    }
+
+    // =========================================================================
+    // PLANIFICATION
+    // =========================================================================
+
+    /** Planifie la génération nocturne (sans effet si déjà planifiée). */
+    public synchronized void start() {
+        if (nightly != null) return;
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.toLocalDate().atTime(NIGHTLY_RUN);
+        if (!next.isAfter(now)) next = next.plusDays(1);
+
+        nightly = executor.scheduleAtFixedRate(() -> {
+            try {
+                generate();
+            } catch (Exception e) {
+                System.err.println("Erreur génération planifiée des rapports : " + e.getMessage());
+            }
+        }, Duration.between(now, next).toMillis(), TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Lance une génération en arrière-plan ; une demande pendant une génération en cours
+     * partage son résultat. Ne pas attendre le résultat depuis l'EDT (la photo des données
+     * y est prise) : enchaîner plutôt un traitement sur le CompletableFuture.
+     */
+    public synchronized CompletableFuture<Manifest> requestNow() {
+        if (running == null || running.isDone()) {
+            running = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return generate();
+                } catch (IOException e) {
+                    throw new IllegalStateException("Écriture des rapports impossible : " + e.getMessage(), e);
+                }
+            }, executor);
+        }
+        return running;
+    }
+
+    // =========================================================================
+    // LECTURE DES RAPPORTS PRÉ-CALCULÉS
+    // =========================================================================
+
+    /** Dernière génération réussie dans cette session, ou null. */
+    public Manifest getManifest() {
+        return current;
+    }
+
+    /** Vrai si la dernière génération correspond aux données actuelles. */
+    public boolean isCurrent() {
+        Manifest m = current;
+        return m != null && m.dataVersion == dataManager.getDataVersion();
+    }
+
+    /** Rapport de faculté pré-calculé, ou null s'il est absent ou périmé. */
+    public Path getFacultyReport() {
+        return currentFile(directory.resolve(FACULTY_FILE));
+    }
+
+    public Path getProfessorReport(String professorCode) {
+        return currentFile(directory.resolve(PROFESSORS_DIR).resolve(fileName(professorCode) + ".txt"));
+    }
+
+    public Path getModuleReport(String moduleCode) {
+        return currentFile(directory.resolve(MODULES_DIR).resolve(fileName(moduleCode) + ".csv"));
+    }
+
+    private Path currentFile(Path file) {
+        return isCurrent() && Files.isRegularFile(file) ? file : null;
+    }
+
+    // =========================================================================
+    // GÉNÉRATION
+    // =========================================================================
+
+    // Photo cohérente des données, prise sur l'EDT où ont lieu les modifications
+    private static class Snapshot {
+        long version;
+        List<Student> students;
+        List<Professor> professors;
+        List<Module> modules;
+        List<Grade> grades;
+        List<Inscription> inscriptions;
+        List<Absence> absences;
+        Map<String, Double> averages;
+    }
+
+    private Manifest generate() throws IOException {
+        Snapshot data = takeSnapshot();
+        Manifest last = current;
+        if (last != null && last.dataVersion == data.version) return last; // rien n'a changé
+
+        Files.createDirectories(directory.resolve(PROFESSORS_DIR));
+        Files.createDirectories(directory.resolve(MODULES_DIR));
+        int files = 0;
+
+        // Rapport de faculté
+        FacultyReport faculty = reportEngine.compute(data.students, data.modules,
+                data.grades, data.inscriptions, data.averages);
+        Map<String, String> professorNames = new HashMap<>(data.professors.size() * 2);
+        for (Professor p : data.professors) {
+            professorNames.put(p.getCode(), p.getFullName());
+        }
+        writeCsv(directory.resolve(FACULTY_FILE), csv -> ReportRenderer.writeFacultyReport(csv, faculty,
+                data.students.size(), data.professors.size(), data.modules.size(), professorNames::get));
+        files++;
+
+        // Partition en un passage : module -> inscriptions / notes / absences
+        Map<String, List<Inscription>> inscriptionsByModule = new HashMap<>();
+        for (Inscription i : data.inscriptions) {
+            inscriptionsByModule.computeIfAbsent(i.getModuleCode(), k -> new ArrayList<>()).add(i);
+        }
+        Map<String, List<Grade>> gradesByModule = new HashMap<>();
+        for (Grade g : data.grades) {
+            gradesByModule.computeIfAbsent(g.getModuleCode(), k -> new ArrayList<>()).add(g);
+        }
+        Map<String, List<Absence>> absencesByModule = new HashMap<>();
+        for (Absence a : data.absences) {
+            absencesByModule.computeIfAbsent(a.getModuleCode(), k -> new ArrayList<>()).add(a);
+        }
+
+        // Relevés par module
+        Map<String, Student> students = new HashMap<>(data.students.size() * 2);
+        for (Student s : data.students) {
+            students.put(s.getCode(), s);
+        }
+        Map<String, List<Module>> modulesByProfessor = new HashMap<>();
+        for (Module m : data.modules) {
+            List<Inscription> ins = inscriptionsByModule.getOrDefault(m.getCode(), List.of());
+            List<Grade> grades = gradesByModule.getOrDefault(m.getCode(), List.of());
+            writeCsv(directory.resolve(MODULES_DIR).resolve(fileName(m.getCode()) + ".csv"),
+                    csv -> ReportRenderer.writeModuleReport(csv, m, ins, grades, students, averaging));
+            files++;
+            if (m.getProfessorCode() != null) {
+                modulesByProfessor.computeIfAbsent(m.getProfessorCode(), k -> new ArrayList<>()).add(m);
+            }
+        }
+
+        // Rapports par professeur : jointure sur ses seules données
+        for (Professor p : data.professors) {
+            List<Module> modules = modulesByProfessor.getOrDefault(p.getCode(), List.of());
+            List<Inscription> ins = new ArrayList<>();
+            List<Grade> grades = new ArrayList<>();
+            List<Absence> absences = new ArrayList<>();
+            Set<String> enrolled = new HashSet<>();
+            for (Module m : modules) {
+                ins.addAll(inscriptionsByModule.getOrDefault(m.getCode(), List.of()));
+                grades.addAll(gradesByModule.getOrDefault(m.getCode(), List.of()));
+                absences.addAll(absencesByModule.getOrDefault(m.getCode(), List.of()));
+            }
+            for (Inscription i : ins) {
+                if (students.containsKey(i.getStudentCode())) enrolled.add(i.getStudentCode());
+            }
+
+            ProfessorAnalytics stats = ProfessorAnalytics.compute(modules, ins, grades, absences, averaging);
+            String text = ReportRenderer.professorReport(p, modules, enrolled.size(),
+                    grades.size(), absences.size(), stats);
+            writeAtomically(directory.resolve(PROFESSORS_DIR).resolve(fileName(p.getCode()) + ".txt"),
+                    tmp -> {
+                        try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                            w.write(text);
+                        }
+                    });
+            files++;
+        }
+
+        // Manifeste en dernier : il ne décrit que des fichiers complets
+        Manifest manifest = new Manifest(data.version, LocalDateTime.now(), files);
+        Properties props = new Properties();
+        props.setProperty("dataVersion", String.valueOf(manifest.dataVersion));
+        props.setProperty("generatedAt", manifest.generatedAt.toString());
+        props.setProperty("files", String.valueOf(files));
+        writeAtomically(directory.resolve(MANIFEST_FILE), tmp -> {
+            try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                props.store(w, "Rapports générés");
+            }
+        });
+
+        // Les moyennes sont lues en direct pendant le calcul : si les données ont changé entre-temps,
+        // la version ne correspondra plus et les fichiers ne seront pas servis.
+        current = manifest;
+        return manifest;
+    }
+
+    private Snapshot takeSnapshot() throws IOException {
+        Snapshot data = new Snapshot();
+        Runnable capture = () -> {
+            data.version = dataManager.getDataVersion();
+            data.students = dataManager.getAllStudents();
+            data.professors = dataManager.getAllProfessors();
+            data.modules = dataManager.getAllModules();
+            data.grades = dataManager.getAllGrades();
+            data.inscriptions = dataManager.getAllInscriptions();
+            data.absences = dataManager.getAllAbsences();
+            data.averages = averaging.getAverages();
+        };
+
+        if (SwingUtilities.isEventDispatchThread()) {
+            capture.run();
+            return data;
+        }
+        try {
+            SwingUtilities.invokeAndWait(capture);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Génération des rapports interrompue", e);
+        } catch (InvocationTargetException e) {
+            throw new IOException("Lecture des données impossible : " + e.getCause(), e.getCause());
+        }
+        return data;
+    }
+
+    // =========================================================================
+    // ÉCRITURE
+    // =========================================================================
+    @FunctionalInterface
+    private interface FileContent {
+        void write(Path target) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface CsvContent {
+        void write(CsvWriter csv) throws IOException;
+    }
+
+    private static void writeCsv(Path file, CsvContent content) throws IOException {
+        writeAtomically(file, tmp -> {
+            try (CsvWriter csv = new CsvWriter(tmp, CsvWriter.COMMA)) {
+                content.write(csv);
+            }
+        });
+    }
+
+    /** Écrit dans un fichier temporaire voisin puis le renomme : un export ne lit jamais un fichier partiel. */
+    private static void writeAtomically(Path file, FileContent content) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            content.write(tmp);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Nom de fichier sans collision : majuscules, chiffres, '-' et '_' gardés tels quels,
+     * tout autre octet UTF-8 (minuscules et '%' compris) encodé en %XX.
+     * Deux codes distincts donnent deux noms distincts, même sur un système de fichiers
+     * insensible à la casse (ex: "M.1" -> "M%2E1", "M_1" -> "M_1", "m1" -> "%6D1").
+     */
+    private static String fileName(String code) {
+        StringBuilder name = new StringBuilder(code.length() + 8);
+        for (byte b : code.getBytes(StandardCharsets.UTF_8)) {
+            int c = b & 0xFF;
+            if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_') {
+                name.append((char) c);
+            } else {
+                name.append('%').append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            }
+        }
+        return name.toString();
+    }
+}
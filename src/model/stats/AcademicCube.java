@@ -0,0 +1,603 @@
+package model.stats;
+
+import model.dao.DataManager;
+import model.entities.Absence;
+import model.entities.Grade;
+import model.entities.Module;
+import model.entities.Student;
+import model.entities.User;
+import model.observers.AverageChangeListener;
+import model.observers.DataChangeListener;
+import model.observers.DataEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Cube d'agrégats année × spécialité × module × semestre (OLAP en mémoire).
+ * - Chaque dimension a une case ALL (indice 0) : tous les niveaux d'agrégation sont
+ *   précalculés, une tranche se lit en un accès tableau (pas de parcours)
+ * - Mesures par cellule : moyennes (étudiant, module) pondérées, modules validés,
+ *   notes saisies, absences par type de séance
+ * - Mesures par promotion (année × spécialité) : étudiants, admis, somme des moyennes
+ * Construit en une passe parallèle (fork/join) puis tenu à jour par les événements
+ * de DataManager et d'AveragingEngine. Un nouveau membre de dimension (module,
+ * spécialité, année) ou un changement de semestre / promotion provoque une reconstruction.
+ * Implémente le pattern Singleton.
+ */
+public class AcademicCube implements DataChangeListener, AverageChangeListener {
+    private static AcademicCube instance;
+
+    public enum Dimension { YEAR, SPECIALITY, MODULE, SEMESTER }
+
+    private static final int ALL = 0;
+    private static final int SEMESTERS = 2;
+    private static final int SEMESTER_SIZE = SEMESTERS + 1;
+    private static final String[] SESSION_TYPES = {
+            Absence.SESSION_COURSE, Absence.SESSION_TD, Absence.SESSION_TP
+    };
+    // En dessous : tranche traitée séquentiellement
+    private static final int THRESHOLD = 4096;
+    private static final double PASSING_AVERAGE = 10.0;
+
+    private final DataManager dataManager;
+    private final AveragingEngine averaging;
+    private final ForkJoinPool pool;
+
+    // Dictionnaires des dimensions (membre -> indice >= 1)
+    private final Map<Integer, Integer> yearIndex = new LinkedHashMap<>();
+    private final Map<String, Integer> specialityIndex = new LinkedHashMap<>();
+    private final Map<String, Integer> moduleIndex = new LinkedHashMap<>();
+    private int years, specialities, modules; // tailles, case ALL comprise
+
+    // Coordonnées des faits : étudiant -> {année, spécialité}, module -> semestre
+    private final Map<String, int[]> studentDims = new HashMap<>();
+    private final Map<String, Integer> moduleSemester = new HashMap<>();
+
+    // Contributions actuelles (pour retirer l'ancienne valeur lors d'une mise à jour)
+    private final Map<String, Map<String, Double>> moduleAverages = new HashMap<>();
+    private final Map<String, Double> studentAverages = new HashMap<>();
+    // Type de séance compté pour chaque absence (l'instance peut être modifiée sur place avant l'événement)
+    private final Map<Absence, String> absenceTypes = new IdentityHashMap<>();
+
+    // Mesures par cellule
+    private Measures cells;
+
+    // Mesures par promotion (année × spécialité, ALL compris)
+    private int[] cohortStudents;
+    private int[] cohortAdmitted;
+    private double[] cohortAverageSum;
+
+    /** Moyenne d'un étudiant dans un module (fait de base). */
+    private static class AverageFact {
+        final String studentCode;
+        final String moduleCode;
+        final double average;
+
+        AverageFact(String studentCode, String moduleCode, double average) {
+            this.studentCode = studentCode;
+            this.moduleCode = moduleCode;
+            this.average = average;
+        }
+    }
+
+    /** Mesures d'une grille de cellules (également utilisées pour les résultats partiels). */
+    private static class Measures {
+        final double[] averageSum;
+        final int[] averageCount;
+        final int[] passing;
+        final int[] gradeCount;
+        final int[] absences; // cellule * (1 + types) : [0] = toutes séances
+
+        Measures(int size) {
+            averageSum = new double[size];
+            averageCount = new int[size];
+            passing = new int[size];
+            gradeCount = new int[size];
+            absences = new int[size * (SESSION_TYPES.length + 1)];
+        }
+
+        Measures merge(Measures other) {
+            for (int i = 0; i < averageSum.length; i++) {
+                averageSum[i] += other.averageSum[i];
+                averageCount[i] += other.averageCount[i];
+                passing[i] += other.passing[i];
+                gradeCount[i] += other.gradeCount[i];
+            }
+            for (int i = 0; i < absences.length; i++) {
+                absences[i] += other.absences[i];
+            }
+            return this;
+        }
+    }
+
+    /** Lecture d'une cellule du cube (copie). */
+    public static class Cell {
+        public final int gradeCount;
+        public final int averageCount;
+        public final int passing;
+        public final int absences;
+        private final double averageSum;
+        private final int[] absencesByType;
+
+        Cell(double averageSum, int averageCount, int passing, int gradeCount, int[] absencesByType) {
+            this.averageSum = averageSum;
+            this.averageCount = averageCount;
+            this.passing = passing;
+            this.gradeCount = gradeCount;
+            this.absences = absencesByType[0];
+            this.absencesByType = absencesByType;
+        }
+
+        /** Moyenne des moyennes (étudiant, module) de la tranche, 0 si aucune. */
+        public double getAverage() {
+            return averageCount > 0 ? averageSum / averageCount : 0.0;
+        }
+
+        /** Part des couples (étudiant, module) validés (moyenne >= 10), en %. */
+        public double getPassRate() {
+            return averageCount > 0 ? passing * 100.0 / averageCount : 0.0;
+        }
+
+        /** Absences par type de séance (Cours, TD, TP). */
+        public Map<String, Integer> getAbsencesBySessionType() {
+            Map<String, Integer> byType = new LinkedHashMap<>();
+            for (int i = 0; i < SESSION_TYPES.length; i++) {
+                byType.put(SESSION_TYPES[i], absencesByType[i + 1]);
+            }
+            return byType;
+        }
+    }
+
+    /** Lecture d'une promotion du cube (copie). */
+    public static class CohortCell {
+        public final int students;
+        public final int admitted;
+        private final double averageSum;
+
+        CohortCell(int students, int admitted, double averageSum) {
+            this.students = students;
+            this.admitted = admitted;
+            this.averageSum = averageSum;
+        }
+
+        public double getSuccessRate() {
+            return students > 0 ? admitted * 100.0 / students : 0.0;
+        }
+
+        /** Moyenne des moyennes générales (0 pour un étudiant sans note). */
+        public double getAverage() {
+            return students > 0 ? averageSum / students : 0.0;
+        }
+    }
+
+    private AcademicCube(DataManager dataManager, AveragingEngine averaging, ForkJoinPool pool) {
+        this.dataManager = dataManager;
+        this.averaging = averaging;
+        this.pool = pool;
+        rebuild();
+        dataManager.addDataChangeListener(this);
+        averaging.addAverageChangeListener(this);
+    }
+
+    public static AcademicCube getInstance() {
+        if (instance == null) {
+            synchronized (AcademicCube.class) {
+                if (instance == null) {
+                    instance = new AcademicCube(DataManager.getInstance(), AveragingEngine.getInstance(),
+                            ForkJoinPool.commonPool());
+                }
+            }
+        }
+        return instance;
+    }
+
+    // =========================================================================
+    // CONSTRUCTION (une passe parallèle + agrégation ALL)
+    // =========================================================================
+    /** Reconstruit dictionnaires et mesures depuis les données. */
+    public synchronized void rebuild() {
+        yearIndex.clear();
+        specialityIndex.clear();
+        moduleIndex.clear();
+        studentDims.clear();
+        moduleSemester.clear();
+        moduleAverages.clear();
+        studentAverages.clear();
+        absenceTypes.clear();
+
+        // Dictionnaires triés : l'ordre des membres suit les valeurs
+        List<Student> students = new ArrayList<>();
+        TreeSet<Integer> yearSet = new TreeSet<>();
+        TreeSet<String> specialitySet = new TreeSet<>();
+        for (Student s : dataManager.students()) {
+            students.add(s);
+            yearSet.add(s.getYear());
+            specialitySet.add(speciality(s));
+        }
+        for (Integer y : yearSet) yearIndex.put(y, yearIndex.size() + 1);
+        for (String sp : specialitySet) specialityIndex.put(sp, specialityIndex.size() + 1);
+        TreeSet<String> moduleCodes = new TreeSet<>();
+        for (Module m : dataManager.modules()) {
+            moduleCodes.add(m.getCode());
+            moduleSemester.put(m.getCode(), semesterOf(m));
+        }
+        for (String code : moduleCodes) moduleIndex.put(code, moduleIndex.size() + 1);
+
+        years = yearIndex.size() + 1;
+        specialities = specialityIndex.size() + 1;
+        modules = moduleIndex.size() + 1;
+
+        for (Student s : students) {
+            studentDims.put(s.getCode(), new int[]{yearIndex.get(s.getYear()), specialityIndex.get(speciality(s))});
+        }
+
+        // Faits (étudiant, module, moyenne)
+        List<AverageFact> averageFacts = new ArrayList<>();
+        for (String studentCode : averaging.getAverages().keySet()) {
+            for (Map.Entry<String, Double> e : averaging.getModuleAverages(studentCode).entrySet()) {
+                averageFacts.add(new AverageFact(studentCode, e.getKey(), e.getValue()));
+            }
+        }
+        List<Grade> grades = new ArrayList<>();
+        dataManager.grades().forEach(grades::add);
+        List<Absence> absences = new ArrayList<>();
+        dataManager.absences().forEach(absences::add);
+
+        // Passe parallèle : cuboïde de base (aucune case ALL) par tranches, fusionnées deux à deux
+        int size = years * specialities * modules * SEMESTER_SIZE;
+        FactTask<AverageFact> averageTask = new FactTask<>(averageFacts, 0, averageFacts.size(), size,
+                (f, m) -> addAverage(m, baseCell(f.studentCode, f.moduleCode), f.average, 1));
+        FactTask<Grade> gradeTask = new FactTask<>(grades, 0, grades.size(), size,
+                (g, m) -> addGrade(m, baseCell(g.getStudentCode(), g.getModuleCode()), 1));
+        FactTask<Absence> absenceTask = new FactTask<>(absences, 0, absences.size(), size,
+                (a, m) -> addAbsence(m, baseCell(a.getStudentCode(), a.getModuleCode()), a.getSessionType(), 1));
+        cells = pool.invoke(new RecursiveTask<Measures>() {
+            @Override
+            protected Measures compute() {
+                ForkJoinTask.invokeAll(averageTask, gradeTask, absenceTask);
+                return averageTask.join().merge(gradeTask.join()).merge(absenceTask.join());
+            }
+        });
+        rollUp();
+
+        for (AverageFact f : averageFacts) {
+            moduleAverages.computeIfAbsent(f.studentCode, k -> new HashMap<>()).put(f.moduleCode, f.average);
+        }
+        for (Absence a : absences) {
+            if (baseCell(a.getStudentCode(), a.getModuleCode()) >= 0) absenceTypes.put(a, a.getSessionType());
+        }
+
+        // Promotions (les cases ALL sont mises à jour avec chaque étudiant)
+        int cohortSize = years * specialities;
+        cohortStudents = new int[cohortSize];
+        cohortAdmitted = new int[cohortSize];
+        cohortAverageSum = new double[cohortSize];
+        for (Student s : students) {
+            addStudent(s.getCode(), 1);
+            setStudentAverage(s.getCode(), averaging.getAverage(s.getCode()));
+        }
+    }
+
+    /** Tranche de faits accumulée dans le cuboïde de base. */
+    private final class FactTask<T> extends RecursiveTask<Measures> {
+        private final List<T> facts;
+        private final int from;
+        private final int to;
+        private final int size;
+        private final BiConsumer<T, Measures> accumulator;
+
+        FactTask(List<T> facts, int from, int to, int size, BiConsumer<T, Measures> accumulator) {
+            this.facts = facts;
+            this.from = from;
+            this.to = to;
+            this.size = size;
+            this.accumulator = accumulator;
+        }
+
+        @Override
+        protected Measures compute() {
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                FactTask<T> left = new FactTask<>(facts, from, mid, size, accumulator);
+                left.fork();
+                Measures right = new FactTask<>(facts, mid, to, size, accumulator).compute();
+                return left.join().merge(right);
+            }
+            Measures partial = new Measures(size);
+            for (int i = from; i < to; i++) {
+                accumulator.accept(facts.get(i), partial);
+            }
+            return partial;
+        }
+    }
+
+    /** Agrège le cuboïde de base dans les cases ALL, une dimension après l'autre. */
+    private void rollUp() {
+        int[] strides = {specialities * modules * SEMESTER_SIZE, modules * SEMESTER_SIZE, SEMESTER_SIZE, 1};
+        int[] sizes = {years, specialities, modules, SEMESTER_SIZE};
+        int total = years * specialities * modules * SEMESTER_SIZE;
+        int types = SESSION_TYPES.length + 1;
+
+        for (int d = 0; d < 4; d++) {
+            for (int cell = 0; cell < total; cell++) {
+                int coord = (cell / strides[d]) % sizes[d];
+                if (coord == ALL) continue;
+                int target = cell - coord * strides[d];
+                cells.averageSum[target] += cells.averageSum[cell];
+                cells.averageCount[target] += cells.averageCount[cell];
+                cells.passing[target] += cells.passing[cell];
+                cells.gradeCount[target] += cells.gradeCount[cell];
+                for (int t = 0; t < types; t++) {
+                    cells.absences[target * types + t] += cells.absences[cell * types + t];
+                }
+            }
+        }
+    }
+
+    // =========================================================================
+    // ÉVÉNEMENTS (mise à jour incrémentale des 16 cellules concernées)
+    // =========================================================================
+    @Override
+    public synchronized void onDataChanged(DataEvent event) {
+        switch (event.getType()) {
+            case USER_ADDED:
+            case USER_UPDATED:
+                User user = event.getEntity();
+                if (user instanceof Student) putStudent((Student) user);
+                break;
+            case MODULE_ADDED:
+            case MODULE_UPDATED:
+                Module module = event.getEntity();
+                Integer semester = moduleSemester.get(module.getCode());
+                if (semester == null || semester != semesterOf(module)) rebuild();
+                break;
+            case GRADE_ADDED:
+                applyGrade(event.getEntity(), 1);
+                break;
+            case GRADE_UPDATED:
+                List<Grade> replacedGrades = event.getReplaced();
+                for (Grade g : replacedGrades) applyGrade(g, -1);
+                applyGrade(event.getEntity(), 1);
+                break;
+            case ABSENCE_ADDED:
+                applyAbsence(event.getEntity(), 1);
+                break;
+            case ABSENCE_UPDATED:
+                List<Absence> replacedAbsences = event.getReplaced();
+                for (Absence a : replacedAbsences) applyAbsence(a, -1);
+                applyAbsence(event.getEntity(), 1);
+                break;
+            case ABSENCE_DELETED:
+                List<Absence> deleted = event.getReplaced();
+                for (Absence a : deleted) applyAbsence(a, -1);
+                break;
+            default:
+                break; // RESET : AveragingEngine se reconstruit puis appelle onAveragesReset
+        }
+    }
+
+    @Override
+    public synchronized void onAverageChanged(String studentCode, String moduleCode) {
+        int[] dims = studentDims.get(studentCode);
+        Integer m = moduleIndex.get(moduleCode);
+
+        Map<String, Double> contributed = moduleAverages.computeIfAbsent(studentCode, k -> new HashMap<>());
+        Double old = contributed.remove(moduleCode);
+        double avg = averaging.getModuleAverage(studentCode, moduleCode);
+        if (dims != null && m != null) {
+            int semester = moduleSemester.get(moduleCode);
+            if (old != null) forEachRollup(dims[0], dims[1], m, semester, c -> addAverage(cells, c, old, -1));
+            if (!Double.isNaN(avg)) forEachRollup(dims[0], dims[1], m, semester, c -> addAverage(cells, c, avg, 1));
+        }
+        if (!Double.isNaN(avg)) contributed.put(moduleCode, avg);
+
+        if (dims != null) setStudentAverage(studentCode, averaging.getAverage(studentCode));
+    }
+
+    @Override
+    public void onAveragesReset() {
+        rebuild();
+    }
+
+    private void putStudent(Student student) {
+        int[] dims = studentDims.get(student.getCode());
+        Integer y = yearIndex.get(student.getYear());
+        Integer sp = specialityIndex.get(speciality(student));
+        if (dims != null) {
+            // Étudiant existant : ses faits changent de cellule si sa promotion a changé
+            if (y == null || sp == null || dims[0] != y || dims[1] != sp) rebuild();
+            return;
+        }
+        if (y == null || sp == null || moduleAverages.containsKey(student.getCode())) {
+            // Nouvelle année / spécialité, ou notes saisies avant la création du compte
+            rebuild();
+            return;
+        }
+        studentDims.put(student.getCode(), new int[]{y, sp});
+        addStudent(student.getCode(), 1);
+        setStudentAverage(student.getCode(), averaging.getAverage(student.getCode()));
+    }
+
+    private void applyGrade(Grade grade, int sign) {
+        int[] dims = studentDims.get(grade.getStudentCode());
+        Integer m = moduleIndex.get(grade.getModuleCode());
+        if (dims == null || m == null) return;
+        forEachRollup(dims[0], dims[1], m, moduleSemester.get(grade.getModuleCode()),
+                c -> addGrade(cells, c, sign));
+    }
+
+    /** Retrait : type de séance mémorisé à l'ajout, pas celui (peut-être modifié) de l'instance. */
+    private void applyAbsence(Absence absence, int sign) {
+        int[] dims = studentDims.get(absence.getStudentCode());
+        Integer m = moduleIndex.get(absence.getModuleCode());
+        String sessionType = sign > 0 ? absence.getSessionType() : absenceTypes.remove(absence);
+        if (dims == null || m == null || sessionType == null) return;
+        if (sign > 0) absenceTypes.put(absence, sessionType);
+        forEachRollup(dims[0], dims[1], m, moduleSemester.get(absence.getModuleCode()),
+                c -> addAbsence(cells, c, sessionType, sign));
+    }
+
+    /** Appelle l'action sur les 16 cellules contenant le fait (chaque coordonnée ou ALL). */
+    private void forEachRollup(int y, int sp, int m, int t, IntConsumer action) {
+        for (int yy : new int[]{y, ALL})
+            for (int ss : new int[]{sp, ALL})
+                for (int mm : new int[]{m, ALL})
+                    for (int tt : new int[]{t, ALL})
+                        action.accept(cell(yy, ss, mm, tt));
+    }
+
+    // =========================================================================
+    // MESURES
+    // =========================================================================
+    private int cell(int y, int sp, int m, int t) {
+        return ((y * specialities + sp) * modules + m) * SEMESTER_SIZE + t;
+    }
+
+    /** Cellule de base d'un fait, ou -1 si l'étudiant ou le module est inconnu. */
+    private int baseCell(String studentCode, String moduleCode) {
+        int[] dims = studentDims.get(studentCode);
+        Integer m = moduleIndex.get(moduleCode);
+        if (dims == null || m == null) return -1;
+        return cell(dims[0], dims[1], m, moduleSemester.get(moduleCode));
+    }
+
+    private static void addAverage(Measures ms, int cell, double avg, int sign) {
+        if (cell < 0) return;
+        ms.averageSum[cell] += sign * avg;
+        ms.averageCount[cell] += sign;
+        if (avg >= PASSING_AVERAGE) ms.passing[cell] += sign;
+    }
+
+    private static void addGrade(Measures ms, int cell, int sign) {
+        if (cell < 0) return;
+        ms.gradeCount[cell] += sign;
+    }
+
+    private static void addAbsence(Measures ms, int cell, String sessionType, int sign) {
+        if (cell < 0) return;
+        int types = SESSION_TYPES.length + 1;
+        ms.absences[cell * types] += sign;
+        for (int i = 0; i < SESSION_TYPES.length; i++) {
+            if (SESSION_TYPES[i].equalsIgnoreCase(sessionType)) {
+                ms.absences[cell * types + i + 1] += sign;
+            }
+        }
+    }
+
+    private void addStudent(String studentCode, int sign) {
+        int[] dims = studentDims.get(studentCode);
+        for (int c : cohortCells(dims)) cohortStudents[c] += sign;
+    }
+
+    /** Remplace la contribution de l'étudiant aux moyennes et admis de sa promotion. */
+    private void setStudentAverage(String studentCode, double avg) {
+        int[] cohort = cohortCells(studentDims.get(studentCode));
+        Double old = studentAverages.remove(studentCode);
+        if (old != null) {
+            for (int c : cohort) {
+                cohortAverageSum[c] -= old;
+                if (old >= PASSING_AVERAGE) cohortAdmitted[c]--;
+            }
+        }
+        if (!Double.isNaN(avg)) {
+            for (int c : cohort) {
+                cohortAverageSum[c] += avg;
+                if (avg >= PASSING_AVERAGE) cohortAdmitted[c]++;
+            }
+            studentAverages.put(studentCode, avg);
+        }
+    }
+
+    private int[] cohortCells(int[] dims) {
+        return new int[]{
+                dims[0] * specialities + dims[1],
+                dims[0] * specialities + ALL,
+                ALL * specialities + dims[1],
+                ALL
+        };
+    }
+
+    private static String speciality(Student s) {
+        return s.getSpeciality() != null ? s.getSpeciality() : "";
+    }
+
+    private static int semesterOf(Module m) {
+        return (m.getSemester() >= 1 && m.getSemester() <= SEMESTERS) ? m.getSemester() : 1;
+    }
+
+    // =========================================================================
+    // REQUÊTES (null = ALL)
+    // =========================================================================
+    /**
+     * Tranche du cube : chaque paramètre null vaut "tous".
+     * @return la cellule, ou une cellule vide si un membre est inconnu
+     */
+    public synchronized Cell slice(Integer year, String speciality, String moduleCode, Integer semester) {
+        int c = lookup(year, speciality, moduleCode, semester);
+        int types = SESSION_TYPES.length + 1;
+        int[] byType = new int[types];
+        if (c < 0) return new Cell(0, 0, 0, 0, byType);
+        System.arraycopy(cells.absences, c * types, byType, 0, types);
+        return new Cell(cells.averageSum[c], cells.averageCount[c], cells.passing[c], cells.gradeCount[c], byType);
+    }
+
+    /** Promotion (année × spécialité, null = toutes). */
+    public synchronized CohortCell cohort(Integer year, String speciality) {
+        Integer y = year == null ? Integer.valueOf(ALL) : yearIndex.get(year);
+        Integer sp = speciality == null ? Integer.valueOf(ALL) : specialityIndex.get(speciality);
+        if (y == null || sp == null) return new CohortCell(0, 0, 0.0);
+        int c = y * specialities + sp;
+        return new CohortCell(cohortStudents[c], cohortAdmitted[c], cohortAverageSum[c]);
+    }
+
+    /**
+     * Descente dans une dimension : une cellule par membre, les autres coordonnées fixées
+     * (null = ALL). Pour remonter, passer null sur la dimension concernée dans slice().
+     */
+    public synchronized Map<Object, Cell> drillDown(Dimension dimension, Integer year, String speciality,
+                                                    String moduleCode, Integer semester) {
+        Map<Object, Cell> result = new LinkedHashMap<>();
+        for (Object member : getMembers(dimension)) {
+            switch (dimension) {
+                case YEAR:       result.put(member, slice((Integer) member, speciality, moduleCode, semester)); break;
+                case SPECIALITY: result.put(member, slice(year, (String) member, moduleCode, semester)); break;
+                case MODULE:     result.put(member, slice(year, speciality, (String) member, semester)); break;
+                default:         result.put(member, slice(year, speciality, moduleCode, (Integer) member)); break;
+            }
+        }
+        return result;
+    }
+
+    /** Membres d'une dimension, dans l'ordre du cube (sans ALL). */
+    public synchronized List<Object> getMembers(Dimension dimension) {
+        switch (dimension) {
+            case YEAR:       return new ArrayList<>(yearIndex.keySet());
+            case SPECIALITY: return new ArrayList<>(specialityIndex.keySet());
+            case MODULE:     return new ArrayList<>(moduleIndex.keySet());
+            default:
+                List<Object> semesters = new ArrayList<>();
+                for (int t = 1; t <= SEMESTERS; t++) semesters.add(t);
+                return semesters;
+        }
+    }
+
+    private int lookup(Integer year, String speciality, String moduleCode, Integer semester) {
+        Integer y = year == null ? Integer.valueOf(ALL) : yearIndex.get(year);
+        Integer sp = speciality == null ? Integer.valueOf(ALL) : specialityIndex.get(speciality);
+        Integer m = moduleCode == null ? Integer.valueOf(ALL) : moduleIndex.get(moduleCode);
+        int t = semester == null ? ALL : semester;
+        if (y == null || sp == null || m == null || t < ALL || t > SEMESTERS) return -1;
+        return cell(y, sp, m, t);
+    }
+}
@@ -0,0 +1,58 @@
+package model.stats;
+
+/**
+ * Arbre de Fenwick (arbre binaire indexé) sur les moyennes discrétisées au centième.
+ * - 2001 cases : 0.00, 0.01, ... 20.00
+ * - Ajout / retrait d'une moyenne et comptage des moyennes supérieures en O(log n)
+ * Non synchronisé : protégé par le service qui le possède.
+ */
+public class AverageFenwickTree {
+    public static final int BUCKETS = 2001;
+
+    private final int[] tree = new int[BUCKETS + 1];
+    private int size;
+
+    /** Case d'une moyenne (arrondie au centième, bornée à [0, 20]). */
+    public static int bucketOf(double average) {
+        long bucket = Math.round(average * 100.0);
+        return (int) Math.max(0, Math.min(BUCKETS - 1, bucket));
+    }
+
+    public void add(int bucket) {
+        update(bucket, 1);
+        size++;
+    }
+
+    public void remove(int bucket) {
+        update(bucket, -1);
+        size--;
+    }
+
+    /** Nombre de moyennes dans les cases [0, bucket]. */
+    public int countAtOrBelow(int bucket) {
+        int count = 0;
+        for (int i = bucket + 1; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    /** Nombre de moyennes strictement supérieures à la case. */
+    public int countAbove(int bucket) {
+        return size - countAtOrBelow(bucket);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void update(int bucket, int delta) {
+        for (int i = bucket + 1; i <= BUCKETS; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+}
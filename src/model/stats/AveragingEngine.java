@@ -0,0 +1,283 @@
+package model.stats;
+
+import model.dao.DataManager;
+import model.entities.Grade;
+import model.entities.Module;
+import model.observers.AverageChangeListener;
+import model.observers.DataChangeListener;
+import model.observers.DataEvent;
+import model.observers.ObserverExecutors;
+import model.observers.ObserverRegistry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moteur central des moyennes pondérées (voir WeightingRules).
+ * - Notes indexées par étudiant puis par module, tenues à jour par les événements de DataManager
+ * - Cache des moyennes par (étudiant, module) et des moyennes générales :
+ *   une note ne provoque que le recalcul de son module et de la moyenne de l'étudiant
+ * - Les écouteurs (classements, dashboard) sont prévenus de chaque moyenne modifiée
+ * Implémente le pattern Singleton.
+ */
+public class AveragingEngine implements DataChangeListener {
+    private static AveragingEngine instance;
+
+    private final DataManager dataManager;
+    private WeightingRules rules;
+
+    // étudiant -> module -> notes
+    private final Map<String, Map<String, List<Grade>>> gradesByStudent = new HashMap<>();
+    // module -> étudiants notés (pour recalculer après un changement de coefficient)
+    private final Map<String, Set<String>> studentsByModule = new HashMap<>();
+
+    // Caches : étudiant -> module -> moyenne, étudiant -> moyenne générale
+    private final Map<String, Map<String, Double>> moduleAverages = new HashMap<>();
+    private final Map<String, Double> overallAverages = new HashMap<>();
+
+    private final ObserverRegistry<AverageChangeListener> listeners = new ObserverRegistry<>("averages");
+
+    private AveragingEngine(DataManager dataManager) {
+        this.dataManager = dataManager;
+        this.rules = WeightingRules.getActive();
+        rebuild();
+        dataManager.addDataChangeListener(this);
+    }
+
+    public static AveragingEngine getInstance() {
+        if (instance == null) {
+            synchronized (AveragingEngine.class) {
+                if (instance == null) {
+                    instance = new AveragingEngine(DataManager.getInstance());
+                }
+            }
+        }
+        return instance;
+    }
+
+    // =========================================================================
+    // RÈGLES & ÉCOUTEURS
+    // =========================================================================
+    public synchronized WeightingRules getRules() {
+        return rules;
+    }
+
+    /** Change les règles de pondération : toutes les moyennes sont recalculées. */
+    public void setRules(WeightingRules newRules) {
+        if (newRules == null) {
+            throw new IllegalArgumentException("Rules must not be null.");
+        }
+        synchronized (this) {
+            rules = newRules;
+            WeightingRules.setActive(newRules);
+            rebuild();
+        }
+        // Tableau de bord, rapports en cache et fichiers pré-calculés sont indexés sur la version
+        dataManager.markDerivedChanged();
+        listeners.dispatch(AverageChangeListener::onAveragesReset);
+    }
+
+    /** Les écouteurs sont appelés sur le thread de la modification (inline). */
+    public void addAverageChangeListener(AverageChangeListener listener) {
+        listeners.add(listener, ObserverExecutors.INLINE);
+    }
+
+    public void removeAverageChangeListener(AverageChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    // =========================================================================
+    // ÉVÉNEMENTS
+    // =========================================================================
+    @Override
+    public void onDataChanged(DataEvent event) {
+        // Moyennes modifiées : {étudiant, module}, diffusées une fois le verrou relâché
+        List<String[]> changed = new ArrayList<>(1);
+        boolean reset = false;
+
+        synchronized (this) {
+            switch (event.getType()) {
+                case GRADE_ADDED:
+                    Grade added = event.getEntity();
+                    index(added, true);
+                    changed.add(refresh(added.getStudentCode(), added.getModuleCode()));
+                    break;
+                case GRADE_UPDATED:
+                    Grade updated = event.getEntity();
+                    List<Grade> replaced = event.getReplaced();
+                    for (Grade old : replaced) {
+                        index(old, false);
+                        if (!old.getModuleCode().equals(updated.getModuleCode())) {
+                            changed.add(refresh(old.getStudentCode(), old.getModuleCode()));
+                        }
+                    }
+                    index(updated, true);
+                    changed.add(refresh(updated.getStudentCode(), updated.getModuleCode()));
+                    break;
+                case MODULE_ADDED:
+                case MODULE_UPDATED:
+                    // Coefficient, crédits ou semestre modifiés : seules les moyennes générales changent
+                    Module module = event.getEntity();
+                    for (String studentCode : studentsByModule.getOrDefault(module.getCode(), Collections.emptySet())) {
+                        refreshOverall(studentCode);
+                        changed.add(new String[]{studentCode, module.getCode()});
+                    }
+                    break;
+                case RESET:
+                    rebuild();
+                    reset = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if (reset) {
+            listeners.dispatch(AverageChangeListener::onAveragesReset);
+        } else {
+            for (String[] c : changed) {
+                listeners.dispatch(l -> l.onAverageChanged(c[0], c[1]));
+            }
+        }
+    }
+
+    private void rebuild() {
+        gradesByStudent.clear();
+        studentsByModule.clear();
+        moduleAverages.clear();
+        overallAverages.clear();
+
+        for (Grade g : dataManager.grades()) {
+            index(g, true);
+        }
+        for (Map.Entry<String, Map<String, List<Grade>>> e : gradesByStudent.entrySet()) {
+            Map<String, Double> averages = new HashMap<>(e.getValue().size() * 2);
+            for (Map.Entry<String, List<Grade>> m : e.getValue().entrySet()) {
+                averages.put(m.getKey(), rules.moduleAverage(m.getValue()));
+            }
+            moduleAverages.put(e.getKey(), averages);
+            overallAverages.put(e.getKey(), rules.combine(averages, dataManager::findModule));
+        }
+    }
+
+    private void index(Grade grade, boolean add) {
+        String studentCode = grade.getStudentCode();
+        String moduleCode = grade.getModuleCode();
+        if (add) {
+            gradesByStudent.computeIfAbsent(studentCode, k -> new HashMap<>())
+                    .computeIfAbsent(moduleCode, k -> new ArrayList<>(4))
+                    .add(grade);
+            studentsByModule.computeIfAbsent(moduleCode, k -> new HashSet<>()).add(studentCode);
+            return;
+        }
+
+        Map<String, List<Grade>> byModule = gradesByStudent.get(studentCode);
+        List<Grade> list = byModule != null ? byModule.get(moduleCode) : null;
+        if (list == null) return;
+        list.remove(grade);
+        if (list.isEmpty()) {
+            byModule.remove(moduleCode);
+            Set<String> students = studentsByModule.get(moduleCode);
+            if (students != null) students.remove(studentCode);
+            if (byModule.isEmpty()) gradesByStudent.remove(studentCode);
+        }
+    }
+
+    /** Recalcule la moyenne (étudiant, module) puis la moyenne générale. */
+    private String[] refresh(String studentCode, String moduleCode) {
+        Map<String, List<Grade>> byModule = gradesByStudent.get(studentCode);
+        List<Grade> list = byModule != null ? byModule.get(moduleCode) : null;
+
+        Map<String, Double> averages = moduleAverages.computeIfAbsent(studentCode, k -> new HashMap<>());
+        if (list == null) {
+            averages.remove(moduleCode);
+        } else {
+            averages.put(moduleCode, rules.moduleAverage(list));
+        }
+        refreshOverall(studentCode);
+        return new String[]{studentCode, moduleCode};
+    }
+
+    private void refreshOverall(String studentCode) {
+        Map<String, Double> averages = moduleAverages.get(studentCode);
+        if (averages == null || averages.isEmpty()) {
+            moduleAverages.remove(studentCode);
+            overallAverages.remove(studentCode);
+        } else {
+            overallAverages.put(studentCode, rules.combine(averages, dataManager::findModule));
+        }
+    }
+
+    // =========================================================================
+    // LECTURE
+    // =========================================================================
+    /** Moyenne générale de l'étudiant, ou NaN s'il n'a aucune note. */
+    public synchronized double getAverage(String studentCode) {
+        Double avg = overallAverages.get(studentCode);
+        return avg != null ? avg : Double.NaN;
+    }
+
+    /** Moyenne générale, ou la valeur par défaut si l'étudiant n'a aucune note. */
+    public double getAverageOrDefault(String studentCode, double defaultValue) {
+        double avg = getAverage(studentCode);
+        return Double.isNaN(avg) ? defaultValue : avg;
+    }
+
+    /** Moyenne de l'étudiant dans un module, ou NaN sans note. */
+    public synchronized double getModuleAverage(String studentCode, String moduleCode) {
+        Map<String, Double> averages = moduleAverages.get(studentCode);
+        Double avg = averages != null ? averages.get(moduleCode) : null;
+        return avg != null ? avg : Double.NaN;
+    }
+
+    /** Moyennes par module de l'étudiant (copie). */
+    public synchronized Map<String, Double> getModuleAverages(String studentCode) {
+        Map<String, Double> averages = moduleAverages.get(studentCode);
+        return averages != null ? new HashMap<>(averages) : new HashMap<>();
+    }
+
+    /**
+     * Moyenne de l'étudiant restreinte à certains modules (ex: ceux d'un professeur).
+     * @return la moyenne, ou NaN si aucun de ces modules n'est noté
+     */
+    public synchronized double getAverage(String studentCode, Collection<String> moduleCodes) {
+        Map<String, Double> averages = moduleAverages.get(studentCode);
+        if (averages == null) return Double.NaN;
+        Map<String, Double> subset = new HashMap<>();
+        for (String code : moduleCodes) {
+            Double avg = averages.get(code);
+            if (avg != null) subset.put(code, avg);
+        }
+        return rules.combine(subset, dataManager::findModule);
+    }
+
+    /**
+     * Moyenne de classe d'un ensemble de modules : moyenne des moyennes (étudiant, module).
+     * @return la moyenne, ou NaN si aucune note
+     */
+    public synchronized double getClassAverage(Collection<String> moduleCodes) {
+        double sum = 0;
+        int count = 0;
+        for (String moduleCode : moduleCodes) {
+            for (String studentCode : studentsByModule.getOrDefault(moduleCode, Collections.emptySet())) {
+                double avg = moduleAverages.get(studentCode).get(moduleCode);
+                if (!Double.isNaN(avg)) {
+                    sum += avg;
+                    count++;
+                }
+            }
+        }
+        return count > 0 ? sum / count : Double.NaN;
+    }
+
+    /** Copie des moyennes générales de tous les étudiants notés (ex: rapports). */
+    public synchronized Map<String, Double> getAverages() {
+        return new HashMap<>(overallAverages);
+    }
+}
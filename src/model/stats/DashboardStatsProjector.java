@@ -0,0 +1,214 @@
+package model.stats;
+
+import model.dao.DataManager;
+import model.entities.Inscription;
+import model.entities.Module;
+import model.entities.Professor;
+import model.entities.Student;
+import model.entities.User;
+import model.observers.AverageChangeListener;
+import model.observers.DataChangeListener;
+import model.observers.DataEvent;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Projection des compteurs du dashboard, tenue à jour par les événements de DataManager.
+ * - Chaque ajout / modification ne touche que l'entité concernée
+ * - Étudiants admis suivis via les moyennes pondérées d'AveragingEngine
+ * - Les suppressions en cascade (RESET) déclenchent une reconstruction complète
+ * - Lecture des compteurs en O(1), sans copier les collections
+ * Implémente le pattern Singleton.
+ */
+public class DashboardStatsProjector implements DataChangeListener, AverageChangeListener {
+    private static DashboardStatsProjector instance;
+
+    private static final double PASSING_AVERAGE = 10.0;
+
+    private final DataManager dataManager;
+    private final AveragingEngine averaging;
+
+    // Utilisateurs : code -> rôle (trié : le plus grand code = dernier compte créé)
+    private final TreeMap<String, String> userRoles = new TreeMap<>();
+    private final Set<String> studentCodes = new HashSet<>();
+    private int professorCount;
+
+    // Modules : ensemble des codes, et code -> professeur pour les modules affectés
+    private final Set<String> moduleCodes = new HashSet<>();
+    private final TreeMap<String, String> assignedModules = new TreeMap<>();
+
+    // Inscriptions
+    private int totalInscriptions;
+    private int validatedInscriptions;
+
+    // Étudiants admis (moyenne générale >= 10)
+    private final Set<String> admittedStudents = new HashSet<>();
+
+    private DashboardStatsProjector(DataManager dataManager, AveragingEngine averaging) {
+        this.dataManager = dataManager;
+        this.averaging = averaging;
+        rebuild();
+        dataManager.addDataChangeListener(this);
+        averaging.addAverageChangeListener(this);
+    }
+
+    public static DashboardStatsProjector getInstance() {
+        if (instance == null) {
+            synchronized (DashboardStatsProjector.class) {
+                if (instance == null) {
+                    instance = new DashboardStatsProjector(DataManager.getInstance(), AveragingEngine.getInstance());
+                }
+            }
+        }
+        return instance;
+    }
+
+    // =========================================================================
+    // ÉVÉNEMENTS
+    // =========================================================================
+    @Override
+    public synchronized void onDataChanged(DataEvent event) {
+        switch (event.getType()) {
+            case USER_ADDED:
+                addUser(event.getEntity());
+                break;
+            case USER_UPDATED:
+                removeUser(((User) event.getEntity()).getCode());
+                addUser(event.getEntity());
+                break;
+            case MODULE_ADDED:
+            case MODULE_UPDATED:
+                putModule(event.getEntity());
+                break;
+            case INSCRIPTION_ADDED:
+                addInscription(event.getEntity());
+                break;
+            case RESET:
+                rebuild();
+                break;
+            default:
+                break; // notes : via onAverageChanged ; absences : pas de compteur au dashboard
+        }
+    }
+
+    @Override
+    public synchronized void onAverageChanged(String studentCode, String moduleCode) {
+        updateAdmitted(studentCode);
+    }
+
+    @Override
+    public synchronized void onAveragesReset() {
+        admittedStudents.clear();
+        for (String code : studentCodes) {
+            updateAdmitted(code);
+        }
+    }
+
+    /** Recalcule tous les compteurs depuis les données (démarrage, suppressions en cascade). */
+    public synchronized void rebuild() {
+        userRoles.clear();
+        studentCodes.clear();
+        professorCount = 0;
+        moduleCodes.clear();
+        assignedModules.clear();
+        totalInscriptions = 0;
+        validatedInscriptions = 0;
+        admittedStudents.clear();
+
+        for (User u : dataManager.getAllUsers()) {
+            addUser(u);
+        }
+        for (Module m : dataManager.modules()) {
+            putModule(m);
+        }
+        for (Inscription i : dataManager.inscriptions()) {
+            addInscription(i);
+        }
+    }
+
+    // =========================================================================
+    // MISES À JOUR
+    // =========================================================================
+    private void addUser(User user) {
+        userRoles.put(user.getCode(), user.getRole());
+        if (user instanceof Student) {
+            studentCodes.add(user.getCode());
+            updateAdmitted(user.getCode());
+        } else if (user instanceof Professor) {
+            professorCount++;
+        }
+    }
+
+    private void removeUser(String code) {
+        String role = userRoles.remove(code);
+        if (role == null) return;
+        if (studentCodes.remove(code)) {
+            admittedStudents.remove(code);
+        } else if ("Professor".equals(role)) {
+            professorCount--;
+        }
+    }
+
+    // Les modules sont modifiés en place : l'état d'affectation est relu à chaque événement
+    private void putModule(Module module) {
+        moduleCodes.add(module.getCode());
+        if (module.hasProfessor()) {
+            assignedModules.put(module.getCode(), module.getProfessorCode());
+        } else {
+            assignedModules.remove(module.getCode());
+        }
+    }
+
+    private void addInscription(Inscription inscription) {
+        totalInscriptions++;
+        if (inscription.isValidated()) validatedInscriptions++;
+    }
+
+    private void updateAdmitted(String studentCode) {
+        if (studentCodes.contains(studentCode)
+                && averaging.getAverageOrDefault(studentCode, 0.0) >= PASSING_AVERAGE) {
+            admittedStudents.add(studentCode);
+        } else {
+            admittedStudents.remove(studentCode);
+        }
+    }
+
+    // =========================================================================
+    // LECTURE O(1)
+    // =========================================================================
+    public synchronized int getTotalUsers()            { return userRoles.size(); }
+    public synchronized int getTotalStudents()         { return studentCodes.size(); }
+    public synchronized int getTotalProfessors()       { return professorCount; }
+    public synchronized int getTotalModules()          { return moduleCodes.size(); }
+    public synchronized int getAssignedModules()       { return assignedModules.size(); }
+    public synchronized int getUnassignedModules()     { return moduleCodes.size() - assignedModules.size(); }
+    public synchronized int getTotalInscriptions()     { return totalInscriptions; }
+    public synchronized int getValidatedInscriptions() { return validatedInscriptions; }
+    public synchronized int getPendingInscriptions()   { return totalInscriptions - validatedInscriptions; }
+    public synchronized int getAdmittedStudents()      { return admittedStudents.size(); }
+
+    /** Taux de réussite en % (étudiants dont la moyenne est >= 10). */
+    public synchronized double getSuccessRate() {
+        return studentCodes.isEmpty() ? 0.0 : admittedStudents.size() * 100.0 / studentCodes.size();
+    }
+
+    /** Nombre de tâches en attente : inscriptions à valider + modules sans enseignant. */
+    public synchronized int getPendingTasks() {
+        return getPendingInscriptions() + getUnassignedModules();
+    }
+
+    /** @return {code, rôle} du dernier compte créé, ou null s'il n'y a aucun utilisateur */
+    public synchronized String[] getLastCreatedUser() {
+        Map.Entry<String, String> last = userRoles.lastEntry();
+        return last != null ? new String[]{last.getKey(), last.getValue()} : null;
+    }
+
+    /** @return {code module, code professeur} du dernier module affecté, ou null */
+    public synchronized String[] getLastAssignedModule() {
+        Map.Entry<String, String> last = assignedModules.lastEntry();
+        return last != null ? new String[]{last.getKey(), last.getValue()} : null;
+    }
+}
@@ -0,0 +1,341 @@
+package model.stats;
+
+import model.dao.DataManager;
+import model.entities.Grade;
+import model.entities.Module;
+import model.observers.DataChangeListener;
+import model.observers.DataEvent;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Historique des notes de chaque étudiant, trié par date, pour les sparklines du dashboard.
+ * - Une série par (étudiant, module) et une série globale par étudiant
+ * - Chaque point est la moyenne (WeightingRules, comme AveragingEngine) des notes reçues
+ *   jusque-là : le dernier point de la série globale est la moyenne générale affichée
+ * - Tenu à jour par les événements de DataManager : insertion dichotomique, sans re-tri,
+ *   moyennes recalculées à la lecture suivante
+ * - Sous-échantillonnage LTTB vers un nombre fixe de points
+ * Implémente le pattern Singleton.
+ */
+public class GradeHistory implements DataChangeListener {
+    private static GradeHistory instance;
+
+    private final DataManager dataManager;
+
+    // étudiant -> module -> série, et étudiant -> série globale
+    private final Map<String, Map<String, Series>> byModule = new HashMap<>();
+    private final Map<String, Series> overall = new HashMap<>();
+
+    private GradeHistory(DataManager dataManager) {
+        this.dataManager = dataManager;
+        rebuild();
+        dataManager.addDataChangeListener(this);
+    }
+
+    public static GradeHistory getInstance() {
+        if (instance == null) {
+            synchronized (GradeHistory.class) {
+                if (instance == null) {
+                    instance = new GradeHistory(DataManager.getInstance());
+                }
+            }
+        }
+        return instance;
+    }
+
+    // =========================================================================
+    // SÉRIE TEMPORELLE
+    // =========================================================================
+
+    /**
+     * Notes triées par date (les notes sans date en tête, ordre d'arrivée conservé
+     * à date égale), avec la moyenne à chaque point calculée à la demande.
+     */
+    private static class Series {
+        private Grade[] grades = new Grade[4];
+        private int size;
+
+        // Moyennes à chaque point (null après une modification), et règles utilisées
+        private double[] averages;
+        private WeightingRules averagedWith;
+
+        void insert(Grade grade) {
+            if (size == grades.length) {
+                grades = Arrays.copyOf(grades, size * 2);
+            }
+            int index = upperBound(dayOf(grade));
+            System.arraycopy(grades, index, grades, index + 1, size - index);
+            grades[index] = grade;
+            size++;
+            averages = null;
+        }
+
+        boolean remove(Grade grade) {
+            for (int i = 0; i < size; i++) {
+                if (grades[i] == grade) {
+                    System.arraycopy(grades, i + 1, grades, i, size - i - 1);
+                    grades[--size] = null;
+                    averages = null;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void invalidate() {
+            averages = null;
+        }
+
+        /** Premier index dont la date est strictement postérieure à day. */
+        private int upperBound(long day) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (dayOf(grades[mid]) <= day) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Moyenne après chaque note : moyenne du module de la note sur ses notes déjà vues,
+         * puis combinaison des modules, exactement comme AveragingEngine (NaN tant
+         * qu'aucune note ne porte de poids). Tableau partagé : ne pas le modifier.
+         */
+        double[] runningAverages(WeightingRules rules, Function<String, Module> modules) {
+            if (averages != null && averagedWith == rules) return averages;
+
+            double[] result = new double[size];
+            Map<String, List<Grade>> seen = new HashMap<>();
+            Map<String, Double> moduleAverages = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                Grade g = grades[i];
+                List<Grade> moduleGrades = seen.computeIfAbsent(g.getModuleCode(), k -> new ArrayList<>());
+                moduleGrades.add(g);
+                moduleAverages.put(g.getModuleCode(), rules.moduleAverage(moduleGrades));
+                result[i] = rules.combine(moduleAverages, modules);
+            }
+            averages = result;
+            averagedWith = rules;
+            return result;
+        }
+
+        /** Abscisses en jours ; les notes sans date prennent la date de la première note datée. */
+        double[] days() {
+            double[] days = new double[size];
+            int firstDated = 0;
+            while (firstDated < size && grades[firstDated].getDate() == null) firstDated++;
+            double origin = firstDated < size ? dayOf(grades[firstDated]) : 0.0;
+            for (int i = 0; i < size; i++) {
+                days[i] = i < firstDated ? origin : dayOf(grades[i]);
+            }
+            return days;
+        }
+
+        LocalDate[] dates() {
+            LocalDate[] dates = new LocalDate[size];
+            for (int i = 0; i < size; i++) {
+                dates[i] = grades[i].getDate();
+            }
+            return dates;
+        }
+    }
+
+    private static long dayOf(Grade grade) {
+        LocalDate date = grade.getDate();
+        return date != null ? date.toEpochDay() : Long.MIN_VALUE;
+    }
+
+    // =========================================================================
+    // ÉVÉNEMENTS
+    // =========================================================================
+    @Override
+    public synchronized void onDataChanged(DataEvent event) {
+        switch (event.getType()) {
+            case GRADE_ADDED:
+                add(event.getEntity());
+                break;
+            case GRADE_UPDATED:
+                List<Grade> replaced = event.getReplaced();
+                for (Grade old : replaced) {
+                    remove(old);
+                }
+                add(event.getEntity());
+                break;
+            case MODULE_ADDED:
+            case MODULE_UPDATED:
+                // Coefficient, crédits ou semestre : poids des modules dans les moyennes générales
+                for (Series series : overall.values()) series.invalidate();
+                break;
+            case RESET:
+                rebuild();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /** Reconstruit toutes les séries depuis les notes (démarrage, suppressions en cascade). */
+    public synchronized void rebuild() {
+        byModule.clear();
+        overall.clear();
+        for (Grade g : dataManager.grades()) {
+            add(g);
+        }
+    }
+
+    private void add(Grade grade) {
+        String studentCode = grade.getStudentCode();
+        byModule.computeIfAbsent(studentCode, k -> new HashMap<>())
+                .computeIfAbsent(grade.getModuleCode(), k -> new Series())
+                .insert(grade);
+        overall.computeIfAbsent(studentCode, k -> new Series()).insert(grade);
+    }
+
+    private void remove(Grade grade) {
+        String studentCode = grade.getStudentCode();
+        Map<String, Series> modules = byModule.get(studentCode);
+        Series series = modules != null ? modules.get(grade.getModuleCode()) : null;
+        if (series == null || !series.remove(grade)) return;
+        if (series.size == 0) {
+            modules.remove(grade.getModuleCode());
+            if (modules.isEmpty()) byModule.remove(studentCode);
+        }
+
+        Series global = overall.get(studentCode);
+        if (global != null) {
+            global.remove(grade);
+            if (global.size == 0) overall.remove(studentCode);
+        }
+    }
+
+    // =========================================================================
+    // LECTURE
+    // =========================================================================
+
+    /** @param moduleCode module, ou null pour l'historique toutes matières confondues */
+    private Series series(String studentCode, String moduleCode) {
+        if (moduleCode == null) return overall.get(studentCode);
+        Map<String, Series> modules = byModule.get(studentCode);
+        return modules != null ? modules.get(moduleCode) : null;
+    }
+
+    public synchronized int getSize(String studentCode, String moduleCode) {
+        Series series = series(studentCode, moduleCode);
+        return series != null ? series.size : 0;
+    }
+
+    private double[] runningAverages(Series series) {
+        return series.runningAverages(WeightingRules.getActive(), dataManager::findModule);
+    }
+
+    /**
+     * Moyenne après chaque note, dans l'ordre chronologique (tableau vide si aucune note).
+     * NaN pour les premiers points tant qu'aucune note ne porte de poids.
+     */
+    public synchronized double[] getRunningAverages(String studentCode, String moduleCode) {
+        Series series = series(studentCode, moduleCode);
+        return series != null ? runningAverages(series).clone() : new double[0];
+    }
+
+    /** Dates des notes dans l'ordre chronologique (null pour une note sans date). */
+    public synchronized LocalDate[] getDates(String studentCode, String moduleCode) {
+        Series series = series(studentCode, moduleCode);
+        return series != null ? series.dates() : new LocalDate[0];
+    }
+
+    /**
+     * Évolution de la moyenne réduite à au plus points valeurs pour une sparkline
+     * (les premiers points sans moyenne sont omis).
+     * @param moduleCode module, ou null pour la moyenne générale
+     */
+    public synchronized double[] getSparkline(String studentCode, String moduleCode, int points) {
+        Series series = series(studentCode, moduleCode);
+        if (series == null) return new double[0];
+
+        double[] averages = runningAverages(series);
+        int first = 0;
+        while (first < averages.length && Double.isNaN(averages[first])) first++;
+        double[] y = Arrays.copyOfRange(averages, first, averages.length);
+        double[] x = Arrays.copyOfRange(series.days(), first, averages.length);
+
+        int[] kept = downsample(x, y, points);
+        double[] sparkline = new double[kept.length];
+        for (int i = 0; i < kept.length; i++) {
+            sparkline[i] = y[kept[i]];
+        }
+        return sparkline;
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets : garde le premier et le dernier point, puis dans
+     * chaque seau le point formant le plus grand triangle avec le point retenu
+     * précédemment et la moyenne du seau suivant. Préserve pics et creux de la courbe.
+     * @return index des points retenus, croissants (tous si la série est déjà assez courte)
+     */
+    public static int[] downsample(double[] x, double[] y, int points) {
+        int n = y.length;
+        if (points >= n || n <= 2) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) all[i] = i;
+            return all;
+        }
+        if (points < 3) {
+            return new int[]{0, n - 1}; // une sparkline garde au moins ses extrémités
+        }
+
+        int[] kept = new int[points];
+        double bucketSize = (double) (n - 2) / (points - 2);
+        int selected = 0;
+        kept[0] = 0;
+
+        for (int b = 0; b < points - 2; b++) {
+            // Moyenne du seau suivant (ou dernier point pour le dernier seau)
+            int nextStart = (int) Math.floor((b + 1) * bucketSize) + 1;
+            int nextEnd = Math.min(n, (int) Math.floor((b + 2) * bucketSize) + 1);
+            double avgX = 0.0;
+            double avgY = 0.0;
+            if (nextStart >= n - 1 || nextEnd <= nextStart) {
+                avgX = x[n - 1];
+                avgY = y[n - 1];
+            } else {
+                for (int i = nextStart; i < nextEnd; i++) {
+                    avgX += x[i];
+                    avgY += y[i];
+                }
+                avgX /= nextEnd - nextStart;
+                avgY /= nextEnd - nextStart;
+            }
+
+            int start = (int) Math.floor(b * bucketSize) + 1;
+            int end = Math.min(n - 1, (int) Math.floor((b + 1) * bucketSize) + 1);
+            double ax = x[selected];
+            double ay = y[selected];
+            double maxArea = -1.0;
+            int best = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((ax - avgX) * (y[i] - ay) - (ax - x[i]) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    best = i;
+                }
+            }
+            kept[b + 1] = best;
+            selected = best;
+        }
+
+        kept[points - 1] = n - 1;
+        return kept;
+    }
+}
@@ -0,0 +1,196 @@
+package model.stats;
+
+import model.dao.DataManager;
+import model.entities.Student;
+import model.entities.User;
+import model.observers.AverageChangeListener;
+import model.observers.DataChangeListener;
+import model.observers.DataEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Classement des étudiants par moyenne pondérée (AveragingEngine).
+ * - Par promotion (année × spécialité) : moyenne générale
+ * - Par module : moyenne dans le module
+ * Chaque classement est un arbre de Fenwick sur les moyennes au centième :
+ * mise à jour d'une moyenne et calcul d'un rang en O(log n), quelle que soit la taille de la promotion.
+ * Implémente le pattern Singleton.
+ */
+public class RankingService implements DataChangeListener, AverageChangeListener {
+    private static RankingService instance;
+
+    private final DataManager dataManager;
+    private final AveragingEngine averaging;
+
+    // Promotion de chaque étudiant, et place de sa moyenne générale dans l'arbre de la promotion
+    private final Map<String, String> cohortOf = new HashMap<>();
+    private final Map<String, Placement> studentPlacements = new HashMap<>();
+    private final Map<String, AverageFenwickTree> cohortTrees = new HashMap<>();
+
+    // Moyenne par module : module -> (étudiant -> place dans l'arbre du module)
+    private final Map<String, Map<String, Placement>> modulePlacements = new HashMap<>();
+    private final Map<String, AverageFenwickTree> moduleTrees = new HashMap<>();
+
+    /** Case occupée par une moyenne dans un arbre (si classée). */
+    private static class Placement {
+        private AverageFenwickTree placedIn;
+        private int bucket;
+
+        void unplace() {
+            if (placedIn != null) {
+                placedIn.remove(bucket);
+                placedIn = null;
+            }
+        }
+
+        void place(AverageFenwickTree tree, double average) {
+            unplace();
+            if (tree != null && !Double.isNaN(average)) {
+                bucket = AverageFenwickTree.bucketOf(average);
+                tree.add(bucket);
+                placedIn = tree;
+            }
+        }
+    }
+
+    /** Rang d'un étudiant : 1 = meilleure moyenne (ex-aequo au centième près). */
+    public static class Rank {
+        private final int position;
+        private final int total;
+
+        public Rank(int position, int total) {
+            this.position = position;
+            this.total = total;
+        }
+
+        public int getPosition() { return position; }
+        public int getTotal()    { return total; }
+
+        /** Part des étudiants classés devant ou à égalité, en % (ex: 5 = "Top 5%"). */
+        public int getTopPercent() {
+            return (int) Math.ceil(position * 100.0 / total);
+        }
+
+        @Override
+        public String toString() {
+            return position + "/" + total;
+        }
+    }
+
+    private RankingService(DataManager dataManager, AveragingEngine averaging) {
+        this.dataManager = dataManager;
+        this.averaging = averaging;
+        rebuild();
+        dataManager.addDataChangeListener(this);
+        averaging.addAverageChangeListener(this);
+    }
+
+    public static RankingService getInstance() {
+        if (instance == null) {
+            synchronized (RankingService.class) {
+                if (instance == null) {
+                    instance = new RankingService(DataManager.getInstance(), AveragingEngine.getInstance());
+                }
+            }
+        }
+        return instance;
+    }
+
+    // =========================================================================
+    // ÉVÉNEMENTS
+    // =========================================================================
+    /** Changement de promotion (les notes passent par onAverageChanged). */
+    @Override
+    public synchronized void onDataChanged(DataEvent event) {
+        if (event.getType() == DataEvent.Type.USER_ADDED || event.getType() == DataEvent.Type.USER_UPDATED) {
+            User user = event.getEntity();
+            if (user instanceof Student) {
+                setCohort((Student) user);
+            }
+        }
+        // RESET : le moteur de moyennes se reconstruit et appelle onAveragesReset
+    }
+
+    @Override
+    public synchronized void onAverageChanged(String studentCode, String moduleCode) {
+        modulePlacements.computeIfAbsent(moduleCode, k -> new HashMap<>())
+                .computeIfAbsent(studentCode, k -> new Placement())
+                .place(moduleTrees.computeIfAbsent(moduleCode, k -> new AverageFenwickTree()),
+                        averaging.getModuleAverage(studentCode, moduleCode));
+        placeStudent(studentCode);
+    }
+
+    @Override
+    public void onAveragesReset() {
+        rebuild();
+    }
+
+    /** Reconstruit tous les classements depuis les moyennes du moteur. */
+    public synchronized void rebuild() {
+        cohortOf.clear();
+        studentPlacements.clear();
+        cohortTrees.clear();
+        modulePlacements.clear();
+        moduleTrees.clear();
+
+        for (Student s : dataManager.students()) {
+            cohortOf.put(s.getCode(), cohortKey(s.getYear(), s.getSpeciality()));
+        }
+        for (String studentCode : averaging.getAverages().keySet()) {
+            placeStudent(studentCode);
+            for (Map.Entry<String, Double> e : averaging.getModuleAverages(studentCode).entrySet()) {
+                Placement p = new Placement();
+                p.place(moduleTrees.computeIfAbsent(e.getKey(), k -> new AverageFenwickTree()), e.getValue());
+                modulePlacements.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(studentCode, p);
+            }
+        }
+    }
+
+    // =========================================================================
+    // MISES À JOUR
+    // =========================================================================
+    private void setCohort(Student student) {
+        String cohort = cohortKey(student.getYear(), student.getSpeciality());
+        if (!cohort.equals(cohortOf.put(student.getCode(), cohort))) {
+            placeStudent(student.getCode());
+        }
+    }
+
+    private void placeStudent(String studentCode) {
+        String cohort = cohortOf.get(studentCode);
+        studentPlacements.computeIfAbsent(studentCode, k -> new Placement())
+                .place(cohort != null ? cohortTrees.computeIfAbsent(cohort, k -> new AverageFenwickTree()) : null,
+                        averaging.getAverage(studentCode));
+    }
+
+    private static String cohortKey(int year, String speciality) {
+        return year + "|" + speciality;
+    }
+
+    // =========================================================================
+    // REQUÊTES O(log n)
+    // =========================================================================
+    /** Rang de l'étudiant dans sa promotion, ou null s'il n'a pas encore de note. */
+    public synchronized Rank getCohortRank(String studentCode) {
+        return rankOf(studentPlacements.get(studentCode));
+    }
+
+    /** Rang de l'étudiant dans un module, ou null s'il n'y a pas de note. */
+    public synchronized Rank getModuleRank(String studentCode, String moduleCode) {
+        Map<String, Placement> byStudent = modulePlacements.get(moduleCode);
+        return byStudent != null ? rankOf(byStudent.get(studentCode)) : null;
+    }
+
+    /** Nombre d'étudiants classés dans une promotion. */
+    public synchronized int getCohortSize(int year, String speciality) {
+        AverageFenwickTree tree = cohortTrees.get(cohortKey(year, speciality));
+        return tree != null ? tree.size() : 0;
+    }
+
+    private static Rank rankOf(Placement placement) {
+        if (placement == null || placement.placedIn == null) return null;
+        return new Rank(placement.placedIn.countAbove(placement.bucket) + 1, placement.placedIn.size());
+    }
+}
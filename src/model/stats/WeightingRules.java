@@ -0,0 +1,155 @@
+package model.stats;
+
+import model.entities.Grade;
+import model.entities.Module;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Règles de pondération des moyennes (immuables).
+ * - Moyenne d'un module : examen / contrôle continu (CC, TP, TD) selon examWeight,
+ *   chaque groupe pondéré par Grade.coefficient
+ * - Moyenne générale : modules pondérés par coefficient, crédits ou à égalité
+ * - Regroupement par semestre : moyenne générale = moyenne des semestres
+ */
+public final class WeightingRules {
+
+    public enum ModuleWeighting { COEFFICIENT, CREDITS, EQUAL }
+
+    /** 60 % examen / 40 % contrôle continu, modules pondérés par leur coefficient. */
+    public static final WeightingRules DEFAULT =
+            new WeightingRules(0.6, ModuleWeighting.COEFFICIENT, false, true);
+
+    // Règles en vigueur (fixées par AveragingEngine.setRules)
+    private static volatile WeightingRules active = DEFAULT;
+
+    private final double examWeight;
+    private final ModuleWeighting moduleWeighting;
+    private final boolean semesterGrouping;
+    private final boolean gradeCoefficients;
+
+    /**
+     * @param examWeight        Part de l'examen dans la moyenne d'un module (0..1)
+     * @param moduleWeighting   Poids de chaque module dans la moyenne générale
+     * @param semesterGrouping  true : moyenne générale = moyenne des moyennes semestrielles
+     * @param gradeCoefficients true : notes d'un même groupe pondérées par Grade.coefficient
+     */
+    public WeightingRules(double examWeight, ModuleWeighting moduleWeighting,
+                          boolean semesterGrouping, boolean gradeCoefficients) {
+        if (examWeight < 0.0 || examWeight > 1.0) {
+            throw new IllegalArgumentException("Exam weight must be between 0 and 1.");
+        }
+        if (moduleWeighting == null) {
+            throw new IllegalArgumentException("Module weighting must not be null.");
+        }
+        this.examWeight = examWeight;
+        this.moduleWeighting = moduleWeighting;
+        this.semesterGrouping = semesterGrouping;
+        this.gradeCoefficients = gradeCoefficients;
+    }
+
+    public static WeightingRules getActive() {
+        return active;
+    }
+
+    static void setActive(WeightingRules rules) {
+        active = rules;
+    }
+
+    public double getExamWeight()                { return examWeight; }
+    public ModuleWeighting getModuleWeighting()  { return moduleWeighting; }
+    public boolean isSemesterGrouping()          { return semesterGrouping; }
+    public boolean isGradeCoefficients()         { return gradeCoefficients; }
+
+    // =========================================================================
+    // CALCULS
+    // =========================================================================
+    /**
+     * Moyenne d'un module à partir de ses notes.
+     * Si un seul groupe (examen ou contrôle continu) est noté, il compte seul.
+     * @return la moyenne, ou NaN si aucune note
+     */
+    public double moduleAverage(Collection<Grade> moduleGrades) {
+        double examSum = 0, examWeightSum = 0, ccSum = 0, ccWeightSum = 0;
+        for (Grade g : moduleGrades) {
+            double w = gradeCoefficients ? g.getCoefficient() : 1.0;
+            if (Grade.TYPE_EXAM.equalsIgnoreCase(g.getType())) {
+                examSum += w * g.getValue();
+                examWeightSum += w;
+            } else {
+                ccSum += w * g.getValue();
+                ccWeightSum += w;
+            }
+        }
+        if (examWeightSum == 0 && ccWeightSum == 0) return Double.NaN;
+        if (ccWeightSum == 0)   return examSum / examWeightSum;
+        if (examWeightSum == 0) return ccSum / ccWeightSum;
+        return examWeight * (examSum / examWeightSum) + (1.0 - examWeight) * (ccSum / ccWeightSum);
+    }
+
+    /** Poids d'un module dans la moyenne générale (1 si le module est inconnu). */
+    public double moduleWeight(Module module) {
+        if (module == null) return 1.0;
+        switch (moduleWeighting) {
+            case COEFFICIENT: return module.getCoefficient() > 0 ? module.getCoefficient() : 1.0;
+            case CREDITS:     return module.getCredits() > 0 ? module.getCredits() : 1.0;
+            default:          return 1.0;
+        }
+    }
+
+    /**
+     * Moyenne générale à partir des moyennes par module.
+     * @param moduleAverages module -> moyenne du module (les NaN sont ignorés)
+     * @param modules        résolution des modules (coefficient, semestre), peut renvoyer null
+     * @return la moyenne, ou NaN si aucun module noté
+     */
+    public double combine(Map<String, Double> moduleAverages, Function<String, Module> modules) {
+        // semestre -> {somme pondérée, somme des poids} (semestre 0 sans regroupement)
+        Map<Integer, double[]> groups = semesterGrouping ? new TreeMap<>() : new HashMap<>(2);
+        for (Map.Entry<String, Double> e : moduleAverages.entrySet()) {
+            double avg = e.getValue();
+            if (Double.isNaN(avg)) continue;
+            Module module = modules != null ? modules.apply(e.getKey()) : null;
+            int group = (semesterGrouping && module != null) ? module.getSemester() : 0;
+            double w = moduleWeight(module);
+            double[] acc = groups.computeIfAbsent(group, k -> new double[2]);
+            acc[0] += w * avg;
+            acc[1] += w;
+        }
+        if (groups.isEmpty()) return Double.NaN;
+
+        double sum = 0;
+        for (double[] acc : groups.values()) {
+            sum += acc[0] / acc[1];
+        }
+        return sum / groups.size();
+    }
+
+    /**
+     * Moyenne générale calculée directement depuis une liste de notes (sans cache).
+     * @return la moyenne, ou NaN si aucune note
+     */
+    public double average(Collection<Grade> grades, Function<String, Module> modules) {
+        Map<String, List<Grade>> byModule = new HashMap<>();
+        for (Grade g : grades) {
+            byModule.computeIfAbsent(g.getModuleCode(), k -> new ArrayList<>()).add(g);
+        }
+        Map<String, Double> averages = new HashMap<>(byModule.size() * 2);
+        for (Map.Entry<String, List<Grade>> e : byModule.entrySet()) {
+            averages.put(e.getKey(), moduleAverage(e.getValue()));
+        }
+        return combine(averages, modules);
+    }
+
+    @Override
+    public String toString() {
+        return "WeightingRules{exam=" + examWeight + ", modules=" + moduleWeighting +
+                ", semesters=" + semesterGrouping + ", gradeCoefficients=" + gradeCoefficients + "}";
+    }
+}
@@ -76,7 +76,7 @@ public class EnhancedProfessorView extends JFrame {
     private ModernButton addBtn, editBtn, deleteBtn;
     private ModernButton searchBtn;
     private ModernButton loadBtn, saveBtn, cancelBtn;
-    private ModernButton exportBtn, generateReportBtn;
+    private ModernButton exportBtn, generateReportBtn, exportModuleBtn;
     private ModernButton recordAbsenceBtn, viewAbsenceDetailsBtn;
     private JTextField searchField;
     private JComboBox<String> moduleFilter;
@@ -843,8 +843,10 @@ public class EnhancedProfessorView extends JFrame {
         
         exportBtn         = new ModernButton("📤 Exporter PDF", NEON_CYAN);
         generateReportBtn = new ModernButton("🔄 Générer Rapport", NEON_PURPLE);
+        exportModuleBtn   = new ModernButton("📋 Relevé Module", NEON_GREEN);
         
         buttonPanel.add(generateReportBtn);
+        buttonPanel.add(exportModuleBtn);
         buttonPanel.add(exportBtn);
         
         topPanel.add(title, BorderLayout.WEST);
@@ -1292,6 +1294,7 @@ public class EnhancedProfessorView extends JFrame {
     public ModernButton getCancelGradesBtn()   { return cancelBtn; }
     public ModernButton getExportBtn()         { return exportBtn; }
     public ModernButton getGenerateReportBtn() { return generateReportBtn; }
+    public ModernButton getExportModuleBtn()   { return exportModuleBtn; }
     public ModernButton getRecordAbsenceBtn()  { return recordAbsenceBtn; }
     public ModernButton getViewAbsenceDetailsBtn() { return viewAbsenceDetailsBtn; }
     public JTextField getSearchField()         { return searchField; }
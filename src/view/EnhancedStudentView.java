@@ -1,5 +1,6 @@
 package view;
 
+import view.components.AnimatedComponents.StatCardWithSparkline;
 import view.components.ModernUIComponents.*;
 import view.components.NotificationCenter;
 
@@ -48,7 +49,7 @@ public class EnhancedStudentView extends JFrame {
     private final String studentCode;
 
     // Cards
-    private ModernCard averageCard;
+    private StatCardWithSparkline averageCard;
     private ModernCard creditsCard;
     private ModernCard absencesCard;
     private ModernCard rankCard;
@@ -119,7 +120,7 @@ public class EnhancedStudentView extends JFrame {
     }
 
     private void initializeComponents() {
-        averageCard  = new ModernCard("Moyenne Générale", "15.50", "📊", NEON_CYAN);
+        averageCard  = new StatCardWithSparkline("Moyenne Générale", "15.50", "", null, NEON_CYAN);
         creditsCard  = new ModernCard("Crédits Validés", "45/60", "✓", NEON_GREEN);
         absencesCard = new ModernCard("Absences", "3", "⚠", NEON_PINK);
         rankCard     = new ModernCard("Classement", "12/150", "🏆", NEON_PURPLE);
@@ -925,6 +926,10 @@ public class EnhancedStudentView extends JFrame {
     public JComboBox<String> getSemesterFilter() { return semesterFilter; }
     
     public void updateAverageCard(String value) { averageCard.setValue(value); }
+    public void updateAverageHistory(String trend, double[] sparkline) {
+        averageCard.setTrend(trend);
+        averageCard.setSparklineData(sparkline);
+    }
     public void updateCreditsCard(String value) { creditsCard.setValue(value); }
     public void updateAbsencesCard(String value) { absencesCard.setValue(value); }
     public void updateRankCard(String value) { rankCard.setValue(value); }
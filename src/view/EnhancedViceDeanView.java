@@ -86,6 +86,7 @@ public class EnhancedViceDeanView extends JFrame {
     private ModernButton deleteAccountBtn;
     private ModernButton exportReportBtn;
     private ModernButton generateStatsBtn;
+    private ModernButton batchReportsBtn;
 
     // Données d’en‑tête
     private final String viceDeanName;
@@ -966,8 +967,10 @@ public class EnhancedViceDeanView extends JFrame {
 
         exportReportBtn  = new ModernButton("📤 Exporter", NEON_CYAN);
         generateStatsBtn = new ModernButton("🔄 Générer", NEON_PURPLE);
+        batchReportsBtn  = new ModernButton("🗂 Tous les rapports", NEON_BLUE);
 
         buttonPanel.add(generateStatsBtn);
+        buttonPanel.add(batchReportsBtn);
         buttonPanel.add(exportReportBtn);
 
         topPanel.add(title, BorderLayout.WEST);
@@ -1439,6 +1442,7 @@ public class EnhancedViceDeanView extends JFrame {
     public ModernButton getDeleteAccountBtn()  { return deleteAccountBtn; }
     public ModernButton getExportReportBtn()   { return exportReportBtn; }
     public ModernButton getGenerateStatsBtn()  { return generateStatsBtn; }
+    public ModernButton getBatchReportsBtn()   { return batchReportsBtn; }
 
     public JTextField getTeacherField()        { return teacherField; }
     public JTextField getSearchStudentField()  { return searchStudentField; }
@@ -424,6 +424,21 @@ public class AnimatedComponents {
             });
         }
         
+        public void setValue(String value) {
+            this.value = value;
+            repaint();
+        }
+        
+        public void setTrend(String trend) {
+            this.trend = trend;
+            repaint();
+        }
+        
+        public void setSparklineData(double[] sparklineData) {
+            this.sparklineData = sparklineData;
+            repaint();
+        }
+        
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
@@ -438,10 +453,12 @@ public class AnimatedComponents {
             g2.setColor(Color.BLACK);
             g2.drawString(value, 20, 70);
             
-            g2.setFont(new Font("Segoe UI", Font.BOLD, 12));
-            boolean isPositive = trend.startsWith("+");
-            g2.setColor(isPositive ? new Color(40, 167, 69) : new Color(220, 53, 69));
-            g2.drawString(trend, 20, 90);
+            if (trend != null && !trend.isEmpty()) {
+                g2.setFont(new Font("Segoe UI", Font.BOLD, 12));
+                boolean isPositive = trend.startsWith("+");
+                g2.setColor(isPositive ? new Color(40, 167, 69) : new Color(220, 53, 69));
+                g2.drawString(trend, 20, 90);
+            }
             
             if (sparklineData != null && sparklineData.length > 1) {
                 drawSparkline(g2);
@@ -455,19 +472,21 @@ public class AnimatedComponents {
             int sparklineHeight = 30;
             int sparklineWidth = getWidth() - 40;
             
-            double max = Double.MIN_VALUE;
+            double max = -Double.MAX_VALUE;
             double min = Double.MAX_VALUE;
             for (double d : sparklineData) {
                 max = Math.max(max, d);
                 min = Math.min(min, d);
             }
+            // Série plate : tracé au milieu plutôt qu'une division par zéro
+            double range = max - min;
             
             g2.setColor(accentColor);
             g2.setStroke(new BasicStroke(2));
             
             GeneralPath path = new GeneralPath();
             for (int i = 0; i < sparklineData.length; i++) {
-                double normalized = (sparklineData[i] - min) / (max - min);
+                double normalized = range > 0 ? (sparklineData[i] - min) / range : 0.5;
                 int x = 20 + (int) (i * sparklineWidth / (sparklineData.length - 1));
                 int y = sparklineY + sparklineHeight - (int) (normalized * sparklineHeight);
                 
@@ -481,7 +500,7 @@ public class AnimatedComponents {
             g2.draw(path);
             
             for (int i = 0; i < sparklineData.length; i++) {
-                double normalized = (sparklineData[i] - min) / (max - min);
+                double normalized = range > 0 ? (sparklineData[i] - min) / range : 0.5;
                 int x = 20 + (int) (i * sparklineWidth / (sparklineData.length - 1));
                 int y = sparklineY + sparklineHeight - (int) (normalized * sparklineHeight);
                 
@@ -4,6 +4,8 @@ package view.components;
 import model.dao.NotificationManager;
 import model.entities.Notification;
 import model.observers.NotificationObserver;
+import model.observers.ObserverExecutors;
+import model.observers.UnreadCountListener;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -12,13 +14,19 @@ import javax.swing.border.CompoundBorder;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.ArrayDeque;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 /**
  * Centre de notifications moderne avec :
  *  - bouton cloche + badge
  *  - popup de liste des notifications
- *  - toast flottante en bas à droite
+ *  - toasts flottantes en bas à droite (file par priorité, fenêtre réutilisée,
+ *    rafales regroupées en un résumé)
  *  - écoute en temps réel via NotificationObserver
  */
 public class NotificationCenter implements NotificationObserver {
@@ -32,24 +40,55 @@ public class NotificationCenter implements NotificationObserver {
     private JPopupMenu notificationPopup;
     private JPanel notificationPanel;
 
-    // Toast
+    // Toast : une seule fenêtre réutilisée, file par priorité, débit limité
+    private static final int  MAX_TOASTS_PER_WINDOW   = 3;
+    private static final long TOAST_RATE_WINDOW_MS    = 10_000;
+    private static final int  MAX_QUEUED_TOASTS       = 10;
+    private static final int  TOAST_DISPLAY_MS        = 8000;
+    private static final int  TOAST_QUEUED_DISPLAY_MS = 3000;
+
     private JWindow toastWindow;
+    private JLabel toastIconLabel;
+    private JTextArea toastMessageArea;
+    private final Timer toastTimer;
+    // Priorité haute d'abord, puis la plus ancienne (accès EDT uniquement)
+    private final PriorityQueue<Notification> toastQueue = new PriorityQueue<>(
+            Comparator.comparingInt(Notification::getPriority).reversed()
+                    .thenComparing(Notification::getTimestamp));
+    private final ArrayDeque<Long> toastHistory = new ArrayDeque<>();
+
+    // Badge piloté par le compteur de non lues du gestionnaire
+    private final UnreadCountListener unreadListener;
 
     private static final Color BADGE_COLOR = new Color(220, 53, 69);
     private static final Color UNREAD_BG   = new Color(240, 245, 255);
     private static final Color READ_BG     = Color.WHITE;
 
+    // Nombre de notifications affichées dans le popup
+    private static final int PAGE_SIZE = 10;
+
     public NotificationCenter(Frame parentFrame, String userCode) {
         this.parentFrame = parentFrame;
         this.userCode = userCode;
         this.notificationManager = NotificationManager.getInstance();
 
+        this.toastTimer = new Timer(TOAST_DISPLAY_MS, e -> showNextToast());
+        this.toastTimer.setRepeats(false);
+
         createNotificationButton();
         createNotificationPopup();
 
         // S'enregistrer comme observer (temps réel)
         notificationManager.addObserver(this);
 
+        // Badge : rafraîchi uniquement quand le compteur de cet utilisateur change
+        unreadListener = (code, count) -> {
+            if (code.equals(this.userCode)) {
+                SwingUtilities.invokeLater(this::updateBadge);
+            }
+        };
+        notificationManager.addUnreadCountListener(unreadListener);
+
         // Mettre à jour le badge au démarrage
         updateBadge();
     }
@@ -202,7 +241,9 @@ public class NotificationCenter implements NotificationObserver {
     private void updateNotificationList() {
         notificationPanel.removeAll();
 
-        List<Notification> notifications = notificationManager.getUserNotifications(userCode);
+        // Seule la première page est lue : coût proportionnel à PAGE_SIZE
+        List<Notification> notifications =
+                notificationManager.getNotifications(userCode, null, PAGE_SIZE).items;
 
         if (notifications.isEmpty()) {
             JLabel emptyLabel = new JLabel("Aucune notification");
@@ -212,12 +253,7 @@ public class NotificationCenter implements NotificationObserver {
             emptyLabel.setHorizontalAlignment(SwingConstants.CENTER);
             notificationPanel.add(emptyLabel);
         } else {
-            // on limite à 10 par défaut
-            List<Notification> recent = notifications.subList(
-                    0, Math.min(10, notifications.size())
-            );
-
-            for (Notification n : recent) {
+            for (Notification n : notifications) {
                 notificationPanel.add(createNotificationItem(n));
             }
         }
@@ -304,7 +340,6 @@ public class NotificationCenter implements NotificationObserver {
         // marquer lue
         if (!notification.isRead()) {
             notificationManager.markAsRead(notification.getId());
-            updateBadge();
             updateNotificationList();
         }
         // montrer le détail
@@ -367,7 +402,6 @@ public class NotificationCenter implements NotificationObserver {
 
     private void markAllAsRead() {
         notificationManager.markAllAsRead(userCode);
-        updateBadge();
         updateNotificationList();
     }
 
@@ -417,13 +451,75 @@ public class NotificationCenter implements NotificationObserver {
     // -------------------------------------------------------------------------
     // TOAST FLOTTANTE
     // -------------------------------------------------------------------------
+    /**
+     * Met la notification en file d'attente de toasts.
+     * La file est servie par priorité ; au-delà de MAX_TOASTS_PER_WINDOW toasts
+     * par TOAST_RATE_WINDOW_MS, le reste est regroupé en un seul résumé.
+     * Une notification urgente passe toujours en toast individuelle, hors limite de débit.
+     */
     private void showToastNotification(Notification notification) {
-        if (toastWindow != null && toastWindow.isVisible()) {
-            toastWindow.setVisible(false);
-            toastWindow.dispose();
-            toastWindow = null;
+        toastQueue.add(notification);
+        if (toastWindow == null || !toastWindow.isVisible()) {
+            showNextToast();
+        } else if (toastQueue.size() == 1) {
+            // La toast affichée cède la place plus tôt
+            toastTimer.setInitialDelay(TOAST_QUEUED_DISPLAY_MS);
+            toastTimer.restart();
+        }
+    }
+
+    private void showNextToast() {
+        if (toastQueue.isEmpty()) {
+            hideToast();
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        while (!toastHistory.isEmpty() && now - toastHistory.peekFirst() > TOAST_RATE_WINDOW_MS) {
+            toastHistory.pollFirst();
+        }
+
+        boolean urgent = toastQueue.peek().getPriority() >= Notification.PRIORITY_URGENT;
+        if (urgent || (toastHistory.size() < MAX_TOASTS_PER_WINDOW && toastQueue.size() <= MAX_QUEUED_TOASTS)) {
+            Notification next = toastQueue.poll();
+            toastHistory.addLast(now);
+            displayToast(next.getIconEmoji(), next.getTitle() + " " + next.getShortMessage());
+        } else {
+            // Rafale : un seul résumé pour tout ce qui attend
+            int pending = toastQueue.size();
+            toastQueue.clear();
+            toastHistory.addLast(now);
+            displayToast("🔔", pending == 1
+                    ? "1 nouvelle notification"
+                    : pending + " nouvelles notifications");
+        }
+
+        // Affichage plus court s'il reste des toasts à montrer
+        toastTimer.setInitialDelay(toastQueue.isEmpty() ? TOAST_DISPLAY_MS : TOAST_QUEUED_DISPLAY_MS);
+        toastTimer.restart();
+    }
+
+    /** Remplit la fenêtre de toast (créée une seule fois) et l'affiche. */
+    private void displayToast(String icon, String text) {
+        if (toastWindow == null) {
+            createToastWindow();
+        }
+
+        toastIconLabel.setText(icon);
+        toastMessageArea.setText(text);
+        toastWindow.pack();
+
+        Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
+        int x = screen.width  - toastWindow.getWidth()  - 20;
+        int y = screen.height - toastWindow.getHeight() - 40;
+        toastWindow.setLocation(x, y);
+
+        if (!toastWindow.isVisible()) {
+            toastWindow.setVisible(true);
         }
+    }
 
+    private void createToastWindow() {
         toastWindow = new JWindow(parentFrame);
         JPanel toastContent = new JPanel(new BorderLayout(8, 8));
         toastContent.setBorder(BorderFactory.createCompoundBorder(
@@ -432,62 +528,49 @@ public class NotificationCenter implements NotificationObserver {
         ));
         toastContent.setBackground(Color.WHITE);
 
-        JLabel iconLabel = new JLabel(notification.getIconEmoji());
-        iconLabel.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 26));
+        toastIconLabel = new JLabel();
+        toastIconLabel.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 26));
 
-        String text = notification.getTitle() + " " + notification.getShortMessage();
-        JTextArea messageArea = new JTextArea(text);
-        messageArea.setEditable(false);
-        messageArea.setLineWrap(true);
-        messageArea.setWrapStyleWord(true);
-        messageArea.setOpaque(false);
-        messageArea.setFont(new Font("Segoe UI", Font.PLAIN, 13));
-        messageArea.setForeground(new Color(33, 37, 41));
+        toastMessageArea = new JTextArea();
+        toastMessageArea.setEditable(false);
+        toastMessageArea.setLineWrap(true);
+        toastMessageArea.setWrapStyleWord(true);
+        toastMessageArea.setOpaque(false);
+        toastMessageArea.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        toastMessageArea.setForeground(new Color(33, 37, 41));
 
         JButton closeBtn = new JButton("Fermer");
         closeBtn.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         closeBtn.setFocusPainted(false);
         closeBtn.setCursor(new Cursor(Cursor.HAND_CURSOR));
         closeBtn.addActionListener(e -> {
-            if (toastWindow != null) {
-                toastWindow.setVisible(false);
-                toastWindow.dispose();
-                toastWindow = null;
-            }
+            // Fermer = ignorer aussi les toasts en attente (le badge reste à jour)
+            toastQueue.clear();
+            hideToast();
         });
 
         JPanel textPanel = new JPanel(new BorderLayout());
         textPanel.setOpaque(false);
-        textPanel.add(messageArea, BorderLayout.CENTER);
+        textPanel.add(toastMessageArea, BorderLayout.CENTER);
 
         JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
         bottomPanel.setOpaque(false);
         bottomPanel.add(closeBtn);
 
-        toastContent.add(iconLabel, BorderLayout.WEST);
+        toastContent.add(toastIconLabel, BorderLayout.WEST);
         toastContent.add(textPanel, BorderLayout.CENTER);
         toastContent.add(bottomPanel, BorderLayout.SOUTH);
 
         toastWindow.getContentPane().add(toastContent);
-        toastWindow.pack();
-
-        Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
-        int x = screen.width  - toastWindow.getWidth()  - 20;
-        int y = screen.height - toastWindow.getHeight() - 40;
-        toastWindow.setLocation(x, y);
-
         toastWindow.setAlwaysOnTop(true);
-        toastWindow.setVisible(true);
+    }
 
-        Timer autoClose = new Timer(8000, e -> {
-            if (toastWindow != null) {
-                toastWindow.setVisible(false);
-                toastWindow.dispose();
-                toastWindow = null;
-            }
-        });
-        autoClose.setRepeats(false);
-        autoClose.start();
+    /** Masque la toast sans détruire la fenêtre (réutilisée par la suivante). */
+    private void hideToast() {
+        toastTimer.stop();
+        if (toastWindow != null) {
+            toastWindow.setVisible(false);
+        }
     }
 
     // -------------------------------------------------------------------------
@@ -507,18 +590,46 @@ public class NotificationCenter implements NotificationObserver {
     // -------------------------------------------------------------------------
     // OBSERVER IMPLEMENTATION
     // -------------------------------------------------------------------------
+    // Les callbacks sont livrés directement dans l'EDT par le gestionnaire
+    @Override
+    public Executor getExecutor() {
+        return ObserverExecutors.EDT;
+    }
+
     @Override
     public void onNotificationReceived(Notification notification) {
         if (notification.getRecipientCode().equals(userCode)) {
-            SwingUtilities.invokeLater(() -> {
-                System.out.println("[NC] Prof " + userCode +
-                        " a reçu une notif type=" + notification.getType());
-                updateBadge();
-                if (notificationPopup != null && notificationPopup.isVisible()) {
-                    updateNotificationList();
-                }
-                showToastNotification(notification);
-            });
+            System.out.println("[NC] Prof " + userCode +
+                    " a reçu une notif type=" + notification.getType());
+            if (notificationPopup != null && notificationPopup.isVisible()) {
+                updateNotificationList();
+            }
+            showToastNotification(notification);
+        }
+    }
+
+    @Override
+    public void onNotificationUpdated(Notification notification) {
+        // Digest enrichi : rafraîchissement de la liste, sans nouvelle toast
+        if (notification.getRecipientCode().equals(userCode)
+                && notificationPopup != null && notificationPopup.isVisible()) {
+            updateNotificationList();
+        }
+    }
+
+    @Override
+    public void onNotificationsReceived(List<Notification> notifications) {
+        List<Notification> mine = notifications.stream()
+                .filter(n -> n.getRecipientCode().equals(userCode))
+                .collect(Collectors.toList());
+        if (mine.isEmpty()) return;
+
+        // Un seul rafraîchissement pour tout le lot
+        if (notificationPopup != null && notificationPopup.isVisible()) {
+            updateNotificationList();
+        }
+        for (Notification notification : mine) {
+            showToastNotification(notification);
         }
     }
 
@@ -527,6 +638,9 @@ public class NotificationCenter implements NotificationObserver {
     // -------------------------------------------------------------------------
     public void dispose() {
         notificationManager.removeObserver(this);
+        notificationManager.removeUnreadCountListener(unreadListener);
+        toastTimer.stop();
+        toastQueue.clear();
         if (toastWindow != null) {
             toastWindow.setVisible(false);
             toastWindow.dispose();
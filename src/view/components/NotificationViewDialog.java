@@ -266,11 +266,7 @@ public class NotificationViewDialog extends JDialog {
         String notificationId = (String) tableModel.getValueAt(row, 6);
         
         // Trouver la notification
-        Notification notification = notificationManager.getUserNotifications(userCode)
-                .stream()
-                .filter(n -> n.getId().equals(notificationId))
-                .findFirst()
-                .orElse(null);
+        Notification notification = notificationManager.getNotification(notificationId);
         
         if (notification != null) {
             // Marquer comme lue